@@ -0,0 +1,132 @@
+package com.yoga.attendance.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.SimpleAsyncTaskExecutorBuilder;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    // spring.threads.virtual.enabled also moves Tomcat request handling and @Scheduled runs onto virtual threads
+    // (Boot auto-configuration). The pools below that exist to cap concurrency against a bounded resource (SMTP,
+    // FCM quota, bcrypt CPU, image memory) stay on platform threads either way.
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    // Declaring our own executors turns off Boot's default one, so re-create it from the spring.task.execution
+    // settings: a virtual-thread-per-task executor in virtual mode, the usual pool otherwise
+    @Primary
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder threadPoolBuilder,
+                                                     SimpleAsyncTaskExecutorBuilder simpleAsyncBuilder) {
+        return virtualThreads ? simpleAsyncBuilder.build() : threadPoolBuilder.build();
+    }
+
+    // Broadcast fan-out workers. Bounded queue: overflow jobs stay QUEUED and are picked up by the resume sweep.
+    @Bean(name = "broadcastExecutor")
+    public ThreadPoolTaskExecutor broadcastExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(50);
+        executor.setThreadNamePrefix("broadcast-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    // FCM multicast batches. Caller-runs on overflow so producers slow down instead of dropping pushes.
+    @Bean(name = "fcmExecutor")
+    public ThreadPoolTaskExecutor fcmExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("fcm-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    // BCrypt hashing, kept off Tomcat threads so a login burst cannot starve other endpoints.
+    // Bounded queue with the default abort policy: PasswordHashingService turns rejections into a fast 503.
+    @Bean(name = "passwordHashExecutor")
+    public ThreadPoolTaskExecutor passwordHashExecutor() {
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(64);
+        executor.setThreadNamePrefix("bcrypt-");
+        return executor;
+    }
+
+    // Outbox mail workers; each takes one batch per poll and sends it over a single SMTP connection
+    @Bean(name = "mailExecutor")
+    public ThreadPoolTaskExecutor mailExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(10);
+        executor.setThreadNamePrefix("mail-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    // Thumbnail/variant generation for uploaded photos. Decoding is memory-heavy, so few threads; when the
+    // queue is full the upload keeps only its original and the rejection is handled by ImageVariantService.
+    @Bean(name = "imageExecutor")
+    public ThreadPoolTaskExecutor imageExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("image-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    // Fan-out for the aggregated /api/v1/me/today endpoint. Kept below the JDBC pool size because most parts
+    // query MySQL; on overflow the request thread runs the part itself, so the endpoint slows down but never fails.
+    // In virtual mode each part gets its own virtual thread and waits for one of the same 8 permits inside the task.
+    // Blocking the submitter instead (setConcurrencyLimit) deadlocks: the content part submits the workshops part
+    // from its own thread while holding a slot, so 8 concurrent requests can hold every slot and wait on each other.
+    @Bean(name = "todayExecutor")
+    public AsyncTaskExecutor todayExecutor() {
+        if (virtualThreads) {
+            Semaphore permits = new Semaphore(8);
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("today-");
+            executor.setVirtualThreads(true);
+            executor.setTaskDecorator(task -> () -> {
+                permits.acquireUninterruptibly();
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(8);
+        executor.setMaxPoolSize(8);
+        executor.setQueueCapacity(200);
+        executor.setThreadNamePrefix("today-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+}
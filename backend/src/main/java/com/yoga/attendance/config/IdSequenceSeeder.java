@@ -0,0 +1,79 @@
+package com.yoga.attendance.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+// The high-insert entities take their ids from pooled sequences so Hibernate can batch their inserts; MySQL
+// has no sequences, so each one is a single-row table (next_val) that hands out ALLOCATION_SIZE ids per read.
+// Their tables were filled through AUTO_INCREMENT before, and ddl-auto creates a new sequence table at 1, so
+// every sequence is moved past the higher of the table's max id and its AUTO_INCREMENT counter on startup,
+// before any insert can run. The counter matters when the newest rows were deleted, and on tables that keep
+// AUTO_INCREMENT (ddl-auto=update never drops it).
+// Production (ddl-auto=validate) creates the tables with database/add_id_sequence_tables.sql first. That
+// switch-over needs every old instance stopped: see the script header.
+@Component
+// After schema update, which creates missing sequence tables
+@DependsOn("entityManagerFactory")
+public class IdSequenceSeeder {
+
+    // Must match allocationSize in the entities' @SequenceGenerator
+    private static final int ALLOCATION_SIZE = 50;
+
+    // Sequence table -> entity table
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "notifications_seq", "notifications",
+            "attendance_seq", "attendance",
+            "user_progress_seq", "user_progress",
+            "attendance_counters_seq", "attendance_counters",
+            "attendance_daily_rollups_seq", "attendance_daily_rollups",
+            "attendance_streaks_seq", "attendance_streaks",
+            "email_outbox_seq", "email_outbox");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdSequenceSeeder(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void seed() {
+        SEQUENCES.forEach((sequence, table) -> {
+            // The pooled optimizer hands out (next_val - ALLOCATION_SIZE, next_val], so leave a full block of headroom
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            long floor = Math.max(maxId, autoIncrement(table) - 1) + ALLOCATION_SIZE + 1;
+            int updated = jdbcTemplate.update(
+                    "UPDATE " + sequence + " SET next_val = GREATEST(next_val, ?)", floor);
+            if (updated == 0) {
+                jdbcTemplate.update("INSERT INTO " + sequence + " (next_val) VALUES (?)", floor);
+            }
+        });
+    }
+
+    // 0 when the table has no AUTO_INCREMENT column (any more)
+    private long autoIncrement(String table) {
+        return jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            // MySQL 8 serves information_schema.TABLES from cached statistics unless told otherwise;
+            // servers without the setting read the counter live
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET SESSION information_schema_stats_expiry = 0");
+            } catch (SQLException ignored) {
+            }
+            try (PreparedStatement query = connection.prepareStatement(
+                    "SELECT AUTO_INCREMENT FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?")) {
+                query.setString(1, table);
+                try (ResultSet rows = query.executeQuery()) {
+                    return rows.next() ? rows.getLong(1) : 0L;
+                }
+            }
+        });
+    }
+}
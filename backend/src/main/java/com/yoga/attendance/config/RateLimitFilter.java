@@ -3,62 +3,150 @@ package com.yoga.attendance.config;
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
+// Per-client sliding-window limiter. The window estimate is previous * (1 - elapsed fraction) + current,
+// which smooths the burst a fixed per-minute bucket allows at each minute boundary.
+// Locally each client has a LongAdder per policy; with rate-limit.redis.enabled the counts live in Redis
+// so the limit holds across replicas, falling back to the local counters if Redis is unreachable.
 @Component
 public class RateLimitFilter implements Filter {
 
-    private final ConcurrentHashMap<String, RequestCounter> requestCounts = new ConcurrentHashMap<>();
-    private static final int MAX_REQUESTS_PER_MINUTE = 100;
+    private static final long WINDOW_MILLIS = 60000;
+    // Credential and OTP endpoints get the strict policy; the rest of /api/v1/auth (admin approvals, sessions,
+    // profile pictures) is authenticated work and stays on the default one
+    private static final Set<String> AUTH_PATHS = Set.of(
+            "/api/v1/auth/login",
+            "/api/v1/auth/register",
+            "/api/v1/auth/forgot-password",
+            "/api/v1/auth/reset-password");
+
+    // INCR and set the expiry in one step, so a crash in between cannot leave a counter without a TTL
+    private static final RedisScript<Long> INCREMENT_SCRIPT = new DefaultRedisScript<>(
+            "local count = redis.call('INCR', KEYS[1]) " +
+            "if count == 1 then redis.call('PEXPIRE', KEYS[1], ARGV[1]) end " +
+            "return count", Long.class);
+
+    private final Policy authPolicy;
+    private final Policy defaultPolicy;
+    private final StringRedisTemplate redisTemplate;
+    private final boolean redisEnabled;
+
+    public RateLimitFilter(StringRedisTemplate redisTemplate,
+                           @Value("${rate-limit.redis.enabled:false}") boolean redisEnabled,
+                           @Value("${rate-limit.auth.requests-per-minute:30}") int authLimit,
+                           @Value("${rate-limit.default.requests-per-minute:100}") int defaultLimit) {
+        this.redisTemplate = redisTemplate;
+        this.redisEnabled = redisEnabled;
+        this.authPolicy = new Policy("auth", authLimit);
+        this.defaultPolicy = new Policy("default", defaultLimit);
+    }
 
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
             throws IOException, ServletException {
-        
+
         HttpServletRequest httpRequest = (HttpServletRequest) request;
         HttpServletResponse httpResponse = (HttpServletResponse) response;
-        
-        String clientIp = getClientIP(httpRequest);
-        String key = clientIp + ":" + System.currentTimeMillis() / 60000;
-        
-        RequestCounter counter = requestCounts.computeIfAbsent(key, k -> new RequestCounter());
-        
-        if (counter.increment() > MAX_REQUESTS_PER_MINUTE) {
+
+        // Stricter limits on login, registration and OTP endpoints
+        Policy policy = AUTH_PATHS.contains(httpRequest.getRequestURI()) ? authPolicy : defaultPolicy;
+
+        if (!allow(policy, getClientIP(httpRequest), System.currentTimeMillis())) {
             httpResponse.setStatus(429);
+            httpResponse.setHeader("Retry-After", String.valueOf(WINDOW_MILLIS / 1000));
             httpResponse.getWriter().write("{\"error\":\"Too many requests. Please try again later.\"}");
             return;
         }
-        
-        cleanupOldEntries();
+
         chain.doFilter(request, response);
     }
 
+    private boolean allow(Policy policy, String clientIp, long now) {
+        if (redisEnabled) {
+            try {
+                return allowShared(policy, clientIp, now);
+            } catch (Exception e) {
+                System.err.println("Redis rate limit unavailable, using local limit: " + e.getMessage());
+            }
+        }
+        return policy.windows.computeIfAbsent(clientIp, ip -> new SlidingWindow()).tryAcquire(now, policy.limit);
+    }
+
+    // Same estimate over two INCR-ed per-window Redis keys that expire after the following window
+    private boolean allowShared(Policy policy, String clientIp, long now) {
+        long window = now / WINDOW_MILLIS;
+        String prefix = "ratelimit:" + policy.name + ":" + clientIp + ":";
+        String currentKey = prefix + window;
+
+        Long current = redisTemplate.execute(INCREMENT_SCRIPT, List.of(currentKey), String.valueOf(2 * WINDOW_MILLIS));
+        String previous = redisTemplate.opsForValue().get(prefix + (window - 1));
+
+        double elapsed = (now % WINDOW_MILLIS) / (double) WINDOW_MILLIS;
+        double estimate = (previous != null ? Long.parseLong(previous) : 0) * (1 - elapsed)
+                + (current != null ? current : 0);
+        return estimate <= policy.limit;
+    }
+
     private String getClientIP(HttpServletRequest request) {
         String xfHeader = request.getHeader("X-Forwarded-For");
         if (xfHeader == null) {
             return request.getRemoteAddr();
         }
-        return xfHeader.split(",")[0];
+        int comma = xfHeader.indexOf(',');
+        return comma < 0 ? xfHeader : xfHeader.substring(0, comma);
+    }
+
+    // Drop clients that have not been seen for a full window; replaces the old per-request map scan
+    @Scheduled(fixedDelay = WINDOW_MILLIS)
+    public void expireIdleWindows() {
+        long staleBefore = System.currentTimeMillis() / WINDOW_MILLIS - 1;
+        authPolicy.windows.values().removeIf(window -> window.windowIndex.get() < staleBefore);
+        defaultPolicy.windows.values().removeIf(window -> window.windowIndex.get() < staleBefore);
     }
 
-    private void cleanupOldEntries() {
-        long currentMinute = System.currentTimeMillis() / 60000;
-        requestCounts.entrySet().removeIf(entry -> {
-            String[] parts = entry.getKey().split(":");
-            long entryMinute = Long.parseLong(parts[1]);
-            return currentMinute - entryMinute > 5;
-        });
+    private static class Policy {
+        private final String name;
+        private final int limit;
+        private final ConcurrentHashMap<String, SlidingWindow> windows = new ConcurrentHashMap<>();
+
+        Policy(String name, int limit) {
+            this.name = name;
+            this.limit = limit;
+        }
     }
 
-    private static class RequestCounter {
-        private int count = 0;
-        
-        public synchronized int increment() {
-            return ++count;
+    private static class SlidingWindow {
+        private final AtomicLong windowIndex = new AtomicLong();
+        private volatile long previousCount;
+        private final LongAdder currentCount = new LongAdder();
+
+        boolean tryAcquire(long now, int limit) {
+            long window = now / WINDOW_MILLIS;
+            long current = windowIndex.get();
+            // Lock-free roll, so request threads (virtual ones included) never queue on a monitor here. One thread
+            // wins the CAS and rolls; requests racing it simply land in the new window. Only forward moves count,
+            // so a request carrying a slightly older timestamp cannot roll the window back.
+            if (window > current && windowIndex.compareAndSet(current, window)) {
+                long finished = currentCount.sumThenReset();
+                previousCount = window == current + 1 ? finished : 0;
+            }
+            currentCount.increment();
+
+            double elapsed = (now % WINDOW_MILLIS) / (double) WINDOW_MILLIS;
+            return previousCount * (1 - elapsed) + currentCount.sum() <= limit;
         }
     }
 }
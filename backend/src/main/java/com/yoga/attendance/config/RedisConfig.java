@@ -1,12 +1,22 @@
 package com.yoga.attendance.config;
 
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yoga.attendance.security.TokenDenylist;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 
 @Configuration
 @EnableCaching
@@ -22,4 +32,59 @@ public class RedisConfig {
         template.setHashValueSerializer(new GenericJackson2JsonRedisSerializer());
         return template;
     }
+
+    // Applies token revocations published by other instances
+    @Bean
+    @ConditionalOnProperty(name = "auth.revocation.redis.enabled", havingValue = "true")
+    public RedisMessageListenerContainer revocationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                     TokenDenylist tokenDenylist) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> tokenDenylist.apply(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(TokenDenylist.CHANNEL));
+        return container;
+    }
+
+    // Backs @Cacheable (see CatalogService): a Caffeine near-cache, plus Redis as a shared second tier
+    // when catalog.cache.redis.enabled is set
+    @Bean
+    public TwoLevelCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                             StringRedisTemplate stringRedisTemplate,
+                                             ObjectMapper objectMapper,
+                                             @Value("${catalog.cache.redis.enabled:false}") boolean sharedTier,
+                                             @Value("${catalog.cache.local-ttl-seconds:600}") long localTtlSeconds,
+                                             @Value("${catalog.cache.shared-ttl-seconds:3600}") long sharedTtlSeconds) {
+        Duration localTtl = Duration.ofSeconds(localTtlSeconds);
+        Duration sharedTtl = Duration.ofSeconds(sharedTtlSeconds);
+        if (!sharedTier) {
+            return new TwoLevelCacheManager(null, null, localTtl, sharedTtl, 1000);
+        }
+
+        // Boot's ObjectMapper (java.time support) plus type information, so entities and lists come back typed
+        ObjectMapper mapper = objectMapper.copy();
+        mapper.activateDefaultTyping(mapper.getPolymorphicTypeValidator(),
+                ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY);
+        GenericJackson2JsonRedisSerializer.registerNullValueSerializer(mapper, null);
+
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(new GenericJackson2JsonRedisSerializer(mapper));
+        template.afterPropertiesSet();
+        return new TwoLevelCacheManager(template, stringRedisTemplate, localTtl, sharedTtl, 1000);
+    }
+
+    // Drops near-cache entries evicted on any instance
+    @Bean
+    @ConditionalOnProperty(name = "catalog.cache.redis.enabled", havingValue = "true")
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                           TwoLevelCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> cacheManager.applyInvalidation(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(TwoLevelCacheManager.CHANNEL));
+        return container;
+    }
 }
@@ -0,0 +1,284 @@
+package com.yoga.attendance.config;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Spring CacheManager with a Caffeine near-cache per instance in front of an optional shared Redis tier.
+// Reads go L1 -> L2 -> loader; writes and evictions go to both tiers, and every eviction is published on
+// CHANNEL so other instances drop their L1 copy (see RedisConfig). Without Redis it is a plain local cache.
+// Redis errors are logged and treated as misses, so an outage costs database reads, not failed requests.
+public class TwoLevelCacheManager implements CacheManager {
+
+    public static final String CHANNEL = "cache:invalidations";
+    private static final String KEY_PREFIX = "cache:";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final StringRedisTemplate publisher;
+    private final Duration localTtl;
+    private final Duration sharedTtl;
+    private final long localMaxSize;
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    // redisTemplate and publisher are null when the shared tier is disabled
+    public TwoLevelCacheManager(RedisTemplate<String, Object> redisTemplate, StringRedisTemplate publisher,
+                                Duration localTtl, Duration sharedTtl, long localMaxSize) {
+        this.redisTemplate = redisTemplate;
+        this.publisher = publisher;
+        this.localTtl = localTtl;
+        this.sharedTtl = sharedTtl;
+        this.localMaxSize = localMaxSize;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, TwoLevelCache::new);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return List.copyOf(caches.keySet());
+    }
+
+    // Invalidation published by any instance, including this one; the message is the cache name
+    public void applyInvalidation(String cacheName) {
+        TwoLevelCache cache = caches.get(cacheName);
+        if (cache != null) {
+            cache.generation.incrementAndGet();
+            cache.local.synchronous().invalidateAll();
+        }
+    }
+
+    public Map<String, Map<String, Object>> getStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        caches.values().forEach(cache -> stats.put(cache.getName(), cache.stats()));
+        return stats;
+    }
+
+    public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+        private final String name;
+        // Async so a loading key holds a future rather than a ConcurrentHashMap bin lock during the query
+        private final AsyncCache<Object, Object> local;
+        // Bumped by every clear/evict (local or published) before the tiers are emptied; a load that saw it change
+        // may have read data the invalidation was meant to drop, so its result is returned but not cached
+        private final AtomicLong generation = new AtomicLong();
+        private final LongAdder localHits = new LongAdder();
+        private final LongAdder sharedHits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        TwoLevelCache(String name) {
+            super(true);
+            this.name = name;
+            this.local = Caffeine.newBuilder()
+                    .maximumSize(localMaxSize)
+                    .expireAfterWrite(localTtl)
+                    .buildAsync();
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return local;
+        }
+
+        @Override
+        protected Object lookup(Object key) {
+            Object value = local.synchronous().getIfPresent(key);
+            if (value != null) {
+                localHits.increment();
+                return value;
+            }
+            long startGeneration = generation.get();
+            value = readShared(key);
+            if (value != null) {
+                sharedHits.increment();
+                if (generation.get() == startGeneration) {
+                    local.synchronous().put(key, value);
+                }
+                return value;
+            }
+            misses.increment();
+            return null;
+        }
+
+        // At most one loader per key per instance, so a cold key costs one query, not one per request. The first
+        // caller installs a future and loads on its own thread; concurrent callers wait on that future. Loading
+        // inside Caffeine's compute would hold a monitor across JDBC, pinning the carrier under virtual threads.
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            Object cached = local.synchronous().getIfPresent(key);
+            if (cached != null) {
+                localHits.increment();
+                return (T) fromStoreValue(cached);
+            }
+            long startGeneration = generation.get();
+            CompletableFuture<Object> loading = new CompletableFuture<>();
+            CompletableFuture<Object> inFlight = local.asMap().putIfAbsent(key, loading);
+            if (inFlight != null) {
+                try {
+                    return (T) fromStoreValue(inFlight.join());
+                } catch (CompletionException e) {
+                    throw new ValueRetrievalException(key, valueLoader, e.getCause());
+                }
+            }
+            try {
+                Object value = readShared(key);
+                if (value != null) {
+                    sharedHits.increment();
+                } else {
+                    misses.increment();
+                    value = toStoreValue(valueLoader.call());
+                    if (generation.get() == startGeneration) {
+                        writeShared(key, value);
+                        // An invalidation that emptied Redis between the check and the write would miss this entry
+                        if (generation.get() != startGeneration) {
+                            deleteShared(key);
+                        }
+                    }
+                }
+                if (generation.get() != startGeneration) {
+                    local.asMap().remove(key, loading);
+                }
+                // Completing a future that was evicted meanwhile does not re-insert it
+                loading.complete(value);
+                return (T) fromStoreValue(value);
+            } catch (Exception e) {
+                // Caffeine drops futures that complete exceptionally, so the next caller retries the load
+                loading.completeExceptionally(e);
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            Object storeValue = toStoreValue(value);
+            local.synchronous().put(key, storeValue);
+            writeShared(key, storeValue);
+        }
+
+        @Override
+        public void evict(Object key) {
+            generation.incrementAndGet();
+            local.synchronous().invalidate(key);
+            deleteShared(key);
+            publish();
+        }
+
+        @Override
+        public void clear() {
+            generation.incrementAndGet();
+            local.synchronous().invalidateAll();
+            if (redisTemplate != null) {
+                try {
+                    redisTemplate.delete(scanSharedKeys());
+                } catch (Exception e) {
+                    System.err.println("Redis cache clear failed for " + name + ": " + e.getMessage());
+                }
+            }
+            publish();
+        }
+
+        Map<String, Object> stats() {
+            long l1 = localHits.sum();
+            long l2 = sharedHits.sum();
+            long missed = misses.sum();
+            long total = l1 + l2 + missed;
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("localHits", l1);
+            stats.put("sharedHits", l2);
+            stats.put("misses", missed);
+            stats.put("hitRate", total == 0 ? 0.0 : (double) (l1 + l2) / total);
+            stats.put("localSize", local.synchronous().estimatedSize());
+            return stats;
+        }
+
+        private String sharedKey(Object key) {
+            return KEY_PREFIX + name + ":" + key;
+        }
+
+        private Object readShared(Object key) {
+            if (redisTemplate == null) {
+                return null;
+            }
+            try {
+                return redisTemplate.opsForValue().get(sharedKey(key));
+            } catch (Exception e) {
+                System.err.println("Redis cache read failed for " + name + ": " + e.getMessage());
+                return null;
+            }
+        }
+
+        private void writeShared(Object key, Object storeValue) {
+            if (redisTemplate == null) {
+                return;
+            }
+            try {
+                redisTemplate.opsForValue().set(sharedKey(key), storeValue, sharedTtl);
+            } catch (Exception e) {
+                System.err.println("Redis cache write failed for " + name + ": " + e.getMessage());
+            }
+        }
+
+        private void deleteShared(Object key) {
+            if (redisTemplate == null) {
+                return;
+            }
+            try {
+                redisTemplate.delete(sharedKey(key));
+            } catch (Exception e) {
+                System.err.println("Redis cache evict failed for " + name + ": " + e.getMessage());
+            }
+        }
+
+        // SCAN rather than KEYS so clearing one cache never blocks Redis
+        private List<String> scanSharedKeys() {
+            List<String> keys = new ArrayList<>();
+            ScanOptions options = ScanOptions.scanOptions().match(KEY_PREFIX + name + ":*").count(100).build();
+            redisTemplate.execute((RedisCallback<Void>) connection -> {
+                try (Cursor<byte[]> cursor = connection.keyCommands().scan(options)) {
+                    cursor.forEachRemaining(key -> keys.add(new String(key, StandardCharsets.UTF_8)));
+                }
+                return null;
+            });
+            return keys;
+        }
+
+        private void publish() {
+            if (publisher == null) {
+                return;
+            }
+            try {
+                publisher.convertAndSend(CHANNEL, name);
+            } catch (Exception e) {
+                System.err.println("Cache invalidation publish failed for " + name + ": " + e.getMessage());
+            }
+        }
+    }
+}
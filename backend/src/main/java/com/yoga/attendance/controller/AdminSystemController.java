@@ -0,0 +1,51 @@
+package com.yoga.attendance.controller;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/admin/system")
+@CrossOrigin(origins = "*")
+public class AdminSystemController {
+
+    @Autowired
+    private DataSource dataSource;
+
+    // Connection pool gauges; threadsAwaitingConnection above zero means requests are queueing for a connection
+    @GetMapping("/db-pool")
+    public ResponseEntity<?> getDbPoolStats(
+            @org.springframework.security.core.annotation.AuthenticationPrincipal org.springframework.security.core.userdetails.UserDetails currentUser) {
+        if (currentUser == null || currentUser.getAuthorities().stream()
+                .noneMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))) {
+            return ResponseEntity.status(403).body(Map.of("error", "Admin access required"));
+        }
+        try {
+            if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+                return ResponseEntity.status(404).body(Map.of("error", "Connection pool statistics unavailable"));
+            }
+            HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+            if (pool == null) {
+                return ResponseEntity.status(404).body(Map.of("error", "Connection pool not started"));
+            }
+
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("poolName", hikari.getPoolName());
+            stats.put("maximumPoolSize", hikari.getMaximumPoolSize());
+            stats.put("totalConnections", pool.getTotalConnections());
+            stats.put("activeConnections", pool.getActiveConnections());
+            stats.put("idleConnections", pool.getIdleConnections());
+            stats.put("threadsAwaitingConnection", pool.getThreadsAwaitingConnection());
+            return ResponseEntity.ok(stats);
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(Map.of("error", "Failed to read pool statistics: " + e.getMessage()));
+        }
+    }
+}
@@ -2,12 +2,14 @@ package com.yoga.attendance.controller;
 
 import com.yoga.attendance.dto.*;
 import com.yoga.attendance.service.AuthService;
+import com.yoga.attendance.service.PasswordHashingService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/v1/auth")
@@ -17,12 +19,17 @@ public class AuthController {
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody LoginRequest request,
             @RequestHeader(value = "User-Agent", required = false) String userAgent,
             @RequestHeader(value = "X-Forwarded-For", required = false) String ipAddress) {
         try {
             return ResponseEntity.ok(authService.login(request, userAgent, ipAddress));
+        } catch (PasswordHashingService.BusyException e) {
+            return busy(e);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", "Authentication failed"));
         }
@@ -37,12 +44,15 @@ public class AuthController {
         }
     }
 
+    // Logs out the user the bearer token belongs to; a username in the body is ignored
     @PostMapping("/logout")
     public ResponseEntity<?> logout(@RequestHeader("Authorization") String token,
-            @RequestBody Map<String, String> request) {
+            @org.springframework.security.core.annotation.AuthenticationPrincipal org.springframework.security.core.userdetails.UserDetails currentUser) {
         try {
-            String username = request.get("username");
-            authService.logout(username, token);
+            if (currentUser == null) {
+                return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
+            }
+            authService.logout(currentUser.getUsername(), token);
             return ResponseEntity.ok(Map.of("message", "Logged out successfully"));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -71,8 +81,23 @@ public class AuthController {
     }
 
     @DeleteMapping("/sessions/{sessionId}")
-    public ResponseEntity<?> logoutSession(@PathVariable Long sessionId) {
+    public ResponseEntity<?> logoutSession(@PathVariable Long sessionId,
+            @org.springframework.security.core.annotation.AuthenticationPrincipal org.springframework.security.core.userdetails.UserDetails currentUser) {
         try {
+            if (currentUser == null) {
+                return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
+            }
+
+            Optional<String> owner = authService.getSessionOwner(sessionId);
+            if (owner.isEmpty()) {
+                return ResponseEntity.status(404).body(Map.of("error", "Session not found"));
+            }
+            boolean isAdmin = currentUser.getAuthorities().stream()
+                    .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+            if (!currentUser.getUsername().equals(owner.get()) && !isAdmin) {
+                return ResponseEntity.status(403).body(Map.of("error", "Access denied"));
+            }
+
             authService.logoutSession(sessionId);
             return ResponseEntity.ok(Map.of("message", "Session logged out"));
         } catch (Exception e) {
@@ -81,8 +106,18 @@ public class AuthController {
     }
 
     @PostMapping("/logout-all/{username}")
-    public ResponseEntity<?> logoutAllDevices(@PathVariable String username) {
+    public ResponseEntity<?> logoutAllDevices(@PathVariable String username,
+            @org.springframework.security.core.annotation.AuthenticationPrincipal org.springframework.security.core.userdetails.UserDetails currentUser) {
         try {
+            if (currentUser == null) {
+                return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
+            }
+            boolean isAdmin = currentUser.getAuthorities().stream()
+                    .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+            if (!currentUser.getUsername().equals(username) && !isAdmin) {
+                return ResponseEntity.status(403).body(Map.of("error", "Access denied"));
+            }
+
             authService.logoutAllDevices(username);
             return ResponseEntity.ok(Map.of("message", "Logged out from all devices"));
         } catch (Exception e) {
@@ -94,6 +129,8 @@ public class AuthController {
     public ResponseEntity<?> register(@jakarta.validation.Valid @RequestBody RegisterRequest request) {
         try {
             return ResponseEntity.ok(authService.register(request));
+        } catch (PasswordHashingService.BusyException e) {
+            return busy(e);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
@@ -115,6 +152,8 @@ public class AuthController {
                     request.get("email"),
                     request.get("otp"),
                     request.get("newPassword")));
+        } catch (PasswordHashingService.BusyException e) {
+            return busy(e);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
@@ -167,4 +206,19 @@ public class AuthController {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
+
+    @GetMapping("/hashing-stats")
+    public ResponseEntity<?> getHashingStats(
+            @org.springframework.security.core.annotation.AuthenticationPrincipal org.springframework.security.core.userdetails.UserDetails currentUser) {
+        boolean isAdmin = currentUser != null && currentUser.getAuthorities().stream()
+                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+        if (!isAdmin) {
+            return ResponseEntity.status(403).body(Map.of("error", "Access denied. Admin only."));
+        }
+        return ResponseEntity.ok(passwordHashingService.getStats());
+    }
+
+    private ResponseEntity<?> busy(PasswordHashingService.BusyException e) {
+        return ResponseEntity.status(503).header("Retry-After", "5").body(Map.of("error", e.getMessage()));
+    }
 }
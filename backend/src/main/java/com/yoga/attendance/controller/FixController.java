@@ -2,6 +2,7 @@ package com.yoga.attendance.controller;
 
 import com.yoga.attendance.entity.User;
 import com.yoga.attendance.repository.UserRepository;
+import com.yoga.attendance.security.PrincipalCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -16,6 +17,8 @@ public class FixController {
     private UserRepository userRepository;
     @Autowired
     private org.springframework.security.crypto.password.PasswordEncoder passwordEncoder;
+    @Autowired
+    private PrincipalCache principalCache;
 
     @PostMapping("/verify-all-users")
     public ResponseEntity<?> verifyAllUsers() {
@@ -45,6 +48,7 @@ public class FixController {
                 user.setEmailVerified(true);
                 user.setPassword(passwordEncoder.encode("Admin123"));
                 userRepository.save(user);
+                principalCache.invalidate(user.getUsername());
                 return ResponseEntity.ok(Map.of("message", "Existing 'admin' user promoted to ADMIN"));
             }
 
@@ -59,6 +63,7 @@ public class FixController {
             user.setEmailVerified(true);
 
             userRepository.save(user);
+            principalCache.invalidate(user.getUsername());
             return ResponseEntity.ok(Map.of("message", "Admin user created successfully"));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -2,9 +2,13 @@ package com.yoga.attendance.controller;
 
 import com.yoga.attendance.entity.HabitTask;
 import com.yoga.attendance.repository.HabitTaskRepository;
+import com.yoga.attendance.service.CatalogService;
+import com.yoga.attendance.service.ContentVersionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -17,16 +21,27 @@ public class HabitController {
     @Autowired
     private HabitTaskRepository habitTaskRepository;
 
+    @Autowired
+    private CatalogService catalogService;
+
+    @Autowired
+    private ContentVersionService contentVersionService;
+
     // Get habit tasks
     @GetMapping("/habits")
-    public ResponseEntity<?> getHabitTasks() {
-        return ResponseEntity.ok(habitTaskRepository.findByActiveTrue());
+    public ResponseEntity<?> getHabitTasks(WebRequest webRequest) {
+        String etag = contentVersionService.etag(ContentVersionService.HABITS);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache().cachePrivate())
+                .body(catalogService.getActiveHabits());
     }
 
     // Admin: Add habit
     @PostMapping("/admin/habit")
     public ResponseEntity<?> addHabit(@RequestBody HabitTask habit) {
-        return ResponseEntity.ok(habitTaskRepository.save(habit));
+        return ResponseEntity.ok(catalogService.saveHabit(habit));
     }
 
     // Admin: Update habit
@@ -38,7 +53,7 @@ public class HabitController {
             habit.setName(habitData.getName());
             habit.setDescription(habitData.getDescription());
             habit.setActive(true);
-            return ResponseEntity.ok(habitTaskRepository.save(habit));
+            return ResponseEntity.ok(catalogService.saveHabit(habit));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
@@ -48,7 +63,7 @@ public class HabitController {
     @DeleteMapping("/admin/habit/{id}")
     public ResponseEntity<?> deleteHabit(@PathVariable Long id) {
         try {
-            habitTaskRepository.deleteById(id);
+            catalogService.deleteHabit(id);
             return ResponseEntity.ok(Map.of("message", "Habit deleted successfully"));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -66,7 +81,7 @@ public class HabitController {
                     task.setName("Task " + i);
                     task.setDescription("Complete your daily habit " + i);
                     task.setActive(true);
-                    habitTaskRepository.save(task);
+                    catalogService.saveHabit(task);
                 }
                 return ResponseEntity.ok(Map.of("message", "5 default tasks created successfully"));
             }
@@ -0,0 +1,31 @@
+package com.yoga.attendance.controller;
+
+import com.yoga.attendance.service.TodayService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/me")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+public class MeController {
+
+    private final TodayService todayService;
+
+    // Home screen payload in one round-trip; replaces the launch sequence of content, progress, routines,
+    // habits, workshops, unread-count and app/open calls (the app-open reminder check runs here too)
+    @GetMapping("/today")
+    public ResponseEntity<?> getToday(
+            @org.springframework.security.core.annotation.AuthenticationPrincipal org.springframework.security.core.userdetails.UserDetails currentUser) {
+        try {
+            if (currentUser == null) {
+                return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
+            }
+            return ResponseEntity.ok(todayService.getToday(currentUser.getUsername()));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(Map.of("error", "Failed to load today: " + e.getMessage()));
+        }
+    }
+}
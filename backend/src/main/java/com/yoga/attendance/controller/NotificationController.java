@@ -1,9 +1,16 @@
 package com.yoga.attendance.controller;
 
+import com.yoga.attendance.entity.BroadcastJob;
+import com.yoga.attendance.service.BroadcastService;
+import com.yoga.attendance.service.ContentVersionService;
 import com.yoga.attendance.service.NotificationService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import java.time.LocalDateTime;
 import java.util.Map;
 
 @RestController
@@ -13,15 +20,42 @@ import java.util.Map;
 public class NotificationController {
 
     private final NotificationService notificationService;
+    private final BroadcastService broadcastService;
+    private final ContentVersionService contentVersionService;
 
     @GetMapping
     public ResponseEntity<?> getMyNotifications(
+            WebRequest webRequest,
             @org.springframework.security.core.annotation.AuthenticationPrincipal org.springframework.security.core.userdetails.UserDetails currentUser) {
         try {
             if (currentUser == null) {
                 return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
             }
-            return ResponseEntity.ok(notificationService.getUserNotifications(currentUser.getUsername()));
+            String username = currentUser.getUsername();
+            // Broadcast counter, this user's counter, and the user itself since devices can switch accounts
+            String etag = contentVersionService.etag(ContentVersionService.NOTIFICATIONS,
+                    ContentVersionService.notifications(username)) + "." + Integer.toHexString(username.hashCode());
+            if (webRequest.checkNotModified(etag)) {
+                return null;
+            }
+            return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache().cachePrivate())
+                    .body(notificationService.getUserNotifications(username));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(Map.of("error", "Failed to fetch notifications: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<?> getMyNotificationsPage(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursorDate,
+            @RequestParam(required = false) Long cursorId,
+            @RequestParam(defaultValue = "20") int size,
+            @org.springframework.security.core.annotation.AuthenticationPrincipal org.springframework.security.core.userdetails.UserDetails currentUser) {
+        try {
+            if (currentUser == null) {
+                return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
+            }
+            return ResponseEntity.ok(notificationService.getInboxPage(currentUser.getUsername(), cursorDate, cursorId, size));
         } catch (Exception e) {
             return ResponseEntity.status(500).body(Map.of("error", "Failed to fetch notifications: " + e.getMessage()));
         }
@@ -41,9 +75,13 @@ public class NotificationController {
     }
 
     @PostMapping("/{notificationId}/read")
-    public ResponseEntity<?> markAsRead(@PathVariable Long notificationId) {
+    public ResponseEntity<?> markAsRead(@PathVariable Long notificationId,
+            @org.springframework.security.core.annotation.AuthenticationPrincipal org.springframework.security.core.userdetails.UserDetails currentUser) {
         try {
-            notificationService.markAsRead(notificationId);
+            if (currentUser == null) {
+                return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
+            }
+            notificationService.markAsRead(currentUser.getUsername(), notificationId);
             return ResponseEntity.ok(Map.of("message", "Marked as read", "success", true));
         } catch (Exception e) {
             return ResponseEntity.status(500).body(Map.of("error", "Failed to mark as read: " + e.getMessage(), "success", false));
@@ -57,8 +95,8 @@ public class NotificationController {
             if (currentUser == null) {
                 return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
             }
-            notificationService.markAllAsRead(currentUser.getUsername());
-            return ResponseEntity.ok(Map.of("message", "All marked as read", "success", true));
+            int updated = notificationService.markAllAsRead(currentUser.getUsername());
+            return ResponseEntity.ok(Map.of("message", "All marked as read", "success", true, "updated", updated));
         } catch (Exception e) {
             return ResponseEntity.status(500).body(Map.of("error", "Failed to mark all as read: " + e.getMessage(), "success", false));
         }
@@ -101,7 +139,10 @@ public class NotificationController {
             }
 
             if ("ALL_USERS".equals(request.getTargetUser())) {
-                notificationService.sendToAllUsers(request.getTitle(), request.getMessage(), request.getType());
+                BroadcastJob job = notificationService.sendToAllUsers(request.getTitle(), request.getMessage(),
+                        request.getType());
+                return ResponseEntity.accepted().body(Map.of("message", "Notification queued", "success", true,
+                        "broadcastId", job.getId()));
             } else if ("ALL_ADMINS".equals(request.getTargetUser())) {
                 notificationService.sendToAdmin(request.getTitle(), request.getMessage(), request.getType());
             } else {
@@ -114,4 +155,31 @@ public class NotificationController {
             return ResponseEntity.status(500).body(Map.of("error", "Failed to send notification: " + e.getMessage(), "success", false));
         }
     }
+
+    @GetMapping("/broadcasts")
+    public ResponseEntity<?> getRecentBroadcasts(
+            @org.springframework.security.core.annotation.AuthenticationPrincipal org.springframework.security.core.userdetails.UserDetails currentUser) {
+        if (!isAdmin(currentUser)) {
+            return ResponseEntity.status(403).body(Map.of("error", "Access denied. Admin only."));
+        }
+        return ResponseEntity.ok(broadcastService.getRecentJobs().stream().map(broadcastService::toStatus).toList());
+    }
+
+    @GetMapping("/broadcasts/{id}")
+    public ResponseEntity<?> getBroadcastStatus(@PathVariable Long id,
+            @org.springframework.security.core.annotation.AuthenticationPrincipal org.springframework.security.core.userdetails.UserDetails currentUser) {
+        if (!isAdmin(currentUser)) {
+            return ResponseEntity.status(403).body(Map.of("error", "Access denied. Admin only."));
+        }
+        try {
+            return ResponseEntity.ok(broadcastService.toStatus(broadcastService.getJob(id)));
+        } catch (Exception e) {
+            return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private boolean isAdmin(org.springframework.security.core.userdetails.UserDetails currentUser) {
+        return currentUser != null && currentUser.getAuthorities().stream()
+                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+    }
 }
@@ -2,16 +2,15 @@ package com.yoga.attendance.controller;
 
 import com.yoga.attendance.entity.HealingUpload;
 import com.yoga.attendance.repository.HealingUploadRepository;
+import com.yoga.attendance.service.BlobStore;
+import com.yoga.attendance.service.ImageVariantService;
 import com.yoga.attendance.util.FileValidator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.util.Map;
 
@@ -26,6 +25,12 @@ public class UploadController {
     @Autowired
     private FileValidator fileValidator;
 
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private BlobStore blobStore;
+
     @PostMapping("/user/healing-upload")
     public ResponseEntity<?> uploadHealingPhoto(
             @RequestParam("username") String username,
@@ -36,20 +41,15 @@ public class UploadController {
         try {
             fileValidator.validateImageFile(file);
 
-            // Save File
-            Path uploadPath = Paths.get("uploads").toAbsolutePath().normalize();
-            if (!Files.exists(uploadPath))
-                Files.createDirectories(uploadPath);
-
+            // Save File; identical photos share one stored copy
             String originalFilename = file.getOriginalFilename();
             String extension = (originalFilename != null && originalFilename.contains("."))
                     ? originalFilename.substring(originalFilename.lastIndexOf("."))
                     : ".jpg";
-            String filename = "healing_" + username + "_" + System.currentTimeMillis() + extension;
-            Path filePath = uploadPath.resolve(filename);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-
-            String fileUrl = "/uploads/" + filename;
+            Path tempFile = blobStore.createTempFile();
+            // File overload: renames the spooled part instead of copying it (see AuthService.updateProfilePicture)
+            file.transferTo(tempFile.toFile());
+            String fileUrl = blobStore.put(tempFile, extension);
 
             // Save Entity
             HealingUpload upload = new HealingUpload();
@@ -61,7 +61,24 @@ public class UploadController {
             upload.setExpiryDate(LocalDateTime.now().plusDays(14)); // Expiry in 14 days
             upload.setIsActive(true);
 
-            return ResponseEntity.ok(healingUploadRepository.save(upload));
+            HealingUpload saved;
+            try {
+                saved = healingUploadRepository.save(upload);
+            } catch (RuntimeException e) {
+                blobStore.release(fileUrl);
+                throw e;
+            }
+
+            // Thumbnail and medium renditions are recorded once generated; clients fall back to photoUrl until then
+            imageVariantService.generateVariants(fileUrl).thenAccept(variants -> {
+                if (!variants.isEmpty() && healingUploadRepository.updateVariants(saved.getId(),
+                        variants.get(ImageVariantService.THUMBNAIL),
+                        variants.get(ImageVariantService.MEDIUM)) == 0) {
+                    variants.values().forEach(blobStore::release);
+                }
+            });
+
+            return ResponseEntity.ok(saved);
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.badRequest().body(Map.of("error", "Failed to upload: " + e.getMessage()));
@@ -0,0 +1,200 @@
+package com.yoga.attendance.controller;
+
+import com.yoga.attendance.service.BlobStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Serves /uploads/** straight from the BlobStore instead of Spring's resource handler.
+// Bodies go out through Tomcat's sendfile when the connector offers it, so the kernel copies the file to
+// the socket without it entering the JVM; otherwise FileChannel.transferTo. Content-addressed names never
+// change and are cached as immutable; legacy flat names revalidate daily. A <file>.br / <file>.gz sibling
+// is served to clients that accept that encoding.
+@RestController
+public class UploadFileController {
+
+    private static final String URL_PREFIX = "/uploads/";
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("[0-9a-f]{2}/[0-9a-f]{2}/([0-9a-f]{64})\\.[a-z0-9]+");
+    private static final Pattern SINGLE_RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String REVALIDATE_DAILY = "public, max-age=86400";
+
+    // Set by Tomcat's NIO connector when sendfile is available for this request
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @GetMapping("/uploads/**")
+    public void serve(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String url = UriUtils.decode(path, StandardCharsets.UTF_8);
+        Optional<Path> stored = blobStore.resolve(url);
+        if (stored.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        Path file = stored.get();
+        String relative = url.substring(URL_PREFIX.length());
+        Matcher contentAddressed = CONTENT_ADDRESSED.matcher(relative);
+
+        // Precompressed sibling, if one exists and the client accepts it
+        String encoding = null;
+        boolean hasEncodings = false;
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        for (String suffix : BlobStore.PRECOMPRESSED_SUFFIXES) {
+            Path sibling = file.resolveSibling(file.getFileName() + suffix);
+            if (!Files.isRegularFile(sibling)) {
+                continue;
+            }
+            hasEncodings = true;
+            String name = suffix.equals(".br") ? "br" : "gzip";
+            if (encoding == null && accepts(acceptEncoding, name)) {
+                encoding = name;
+                file = sibling;
+            }
+        }
+
+        long length = Files.size(file);
+        String tag = contentAddressed.matches()
+                ? contentAddressed.group(1)
+                : Long.toHexString(length) + "-" + Long.toHexString(Files.getLastModifiedTime(file).toMillis());
+        String etag = "\"" + tag + (encoding != null ? "-" + encoding : "") + "\"";
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, contentAddressed.matches() ? IMMUTABLE : REVALIDATE_DAILY);
+        if (hasEncodings) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+
+        if (matchesEtag(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        MediaType mediaType = MediaTypeFactory.getMediaType(stored.get().getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+        response.setContentType(mediaType.toString());
+        if (encoding != null) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+        }
+
+        // Byte ranges apply to the identity encoding only; anything but a single satisfiable range gets the whole file
+        long start = 0;
+        long end = length - 1;
+        if (encoding == null) {
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            String range = request.getHeader(HttpHeaders.RANGE);
+            Matcher single = range != null ? SINGLE_RANGE.matcher(range) : null;
+            if (single != null && single.matches() && (!single.group(1).isEmpty() || !single.group(2).isEmpty())) {
+                if (single.group(1).isEmpty()) {
+                    start = Math.max(0, length - rangeBound(single.group(2)));
+                } else {
+                    start = rangeBound(single.group(1));
+                    if (!single.group(2).isEmpty()) {
+                        end = Math.min(end, rangeBound(single.group(2)));
+                    }
+                }
+                if (start >= length || start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count == 0) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat writes the file from the kernel page cache after the servlet returns
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    // Range positions are digits only, so the one parse failure is overflow: a position past any file's length
+    private long rangeBound(String digits) {
+        try {
+            return Long.parseLong(digits);
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private boolean accepts(String acceptEncoding, String encoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            if (tokens[0].trim().equalsIgnoreCase(encoding)) {
+                return tokens.length < 2 || !tokens[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    // Weak comparison, as RFC 9110 requires for If-None-Match
+    private boolean matchesEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*")) {
+                return true;
+            }
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,17 +1,18 @@
 package com.yoga.attendance.controller;
 
 import com.yoga.attendance.entity.*;
-import com.yoga.attendance.repository.DailyRoutineRepository;
 import com.yoga.attendance.repository.UserLevelRepository;
 import com.yoga.attendance.repository.UserProgressRepository;
-import com.yoga.attendance.repository.VideoRepository;
+import com.yoga.attendance.service.CatalogService;
+import com.yoga.attendance.service.ContentVersionService;
+import com.yoga.attendance.service.UserProgressService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -23,49 +24,38 @@ public class UserProgressController {
     private UserLevelRepository userLevelRepository;
 
     @Autowired
-    private VideoRepository videoRepository;
+    private UserProgressRepository userProgressRepository;
 
     @Autowired
-    private UserProgressRepository userProgressRepository;
+    private CatalogService catalogService;
+
+    @Autowired
+    private ContentVersionService contentVersionService;
 
     @Autowired
-    private DailyRoutineRepository dailyRoutineRepository;
+    private UserProgressService userProgressService;
 
     // Get user's current level and video
     @GetMapping("/user/{username}")
     public ResponseEntity<?> getUserContent(@PathVariable String username) {
-        UserLevel userLevel = userLevelRepository.findByUsername(username)
-                .orElseGet(() -> {
-                    UserLevel newLevel = new UserLevel();
-                    newLevel.setUsername(username);
-                    newLevel.setLevel(1);
-                    newLevel.setCurrentVideoIndex(0);
-                    return userLevelRepository.save(newLevel);
-                });
-
-        List<Video> videos = videoRepository.findByLevelAndActiveTrueOrderByIdAsc(userLevel.getLevel());
-        Video currentVideo = videos.isEmpty() ? null
-                : videos.get(Math.min(userLevel.getCurrentVideoIndex(), videos.size() - 1));
-
-        Map<String, Object> response = new HashMap<>();
-        response.put("level", userLevel.getLevel());
-        response.put("currentVideoIndex", userLevel.getCurrentVideoIndex());
-        response.put("currentVideo", currentVideo);
-        response.put("totalVideos", videos.size());
-
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(userProgressService.getLevelContent(username));
     }
 
     // Get daily routines
     @GetMapping("/routines")
-    public ResponseEntity<?> getDailyRoutines() {
-        return ResponseEntity.ok(dailyRoutineRepository.findByActiveTrueOrderBySequenceAsc());
+    public ResponseEntity<?> getDailyRoutines(WebRequest webRequest) {
+        String etag = contentVersionService.etag(ContentVersionService.ROUTINES);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache().cachePrivate())
+                .body(catalogService.getActiveRoutines());
     }
 
     // Admin: Add routine
     @PostMapping("/admin/routine")
     public ResponseEntity<?> addRoutine(@RequestBody DailyRoutine routine) {
-        return ResponseEntity.ok(dailyRoutineRepository.save(routine));
+        return ResponseEntity.ok(catalogService.saveRoutine(routine));
     }
 
     // Mark video complete
@@ -75,21 +65,14 @@ public class UserProgressController {
         Long videoId = Long.parseLong(request.getOrDefault("videoId", "0"));
 
         // Update UserProgress (Daily tracking)
-        UserProgress progress = getOrCreateProgress(username);
+        UserProgress progress = userProgressService.getOrCreateProgress(username);
         progress.setVideoCompleted(true);
         progress.setCompletedVideoId(videoId);
         userProgressRepository.save(progress);
 
         // Update UserLevel (Overall progress)
         try {
-            UserLevel userLevel = userLevelRepository.findByUsername(username)
-                    .orElseGet(() -> {
-                        UserLevel newLevel = new UserLevel();
-                        newLevel.setUsername(username);
-                        newLevel.setLevel(1);
-                        newLevel.setCurrentVideoIndex(0);
-                        return userLevelRepository.save(newLevel);
-                    });
+            UserLevel userLevel = userProgressService.getOrCreateLevel(username);
 
             // Increment video index
             userLevel.setCurrentVideoIndex(userLevel.getCurrentVideoIndex() + 1);
@@ -104,7 +87,7 @@ public class UserProgressController {
     // Mark routine complete
     @PostMapping("/complete-routine")
     public ResponseEntity<?> completeRoutine(@RequestBody Map<String, String> request) {
-        UserProgress progress = getOrCreateProgress(request.get("username"));
+        UserProgress progress = userProgressService.getOrCreateProgress(request.get("username"));
         progress.setRoutineCompleted(true);
         progress.setAllTasksCompleted(true);
         userProgressRepository.save(progress);
@@ -114,7 +97,7 @@ public class UserProgressController {
     // Mark habits complete
     @PostMapping("/complete-habits")
     public ResponseEntity<?> completeHabits(@RequestBody Map<String, String> request) {
-        UserProgress progress = getOrCreateProgress(request.get("username"));
+        UserProgress progress = userProgressService.getOrCreateProgress(request.get("username"));
         progress.setHabitsCompleted(true);
         progress.setAllTasksCompleted(true);
         userProgressRepository.save(progress);
@@ -124,7 +107,7 @@ public class UserProgressController {
     // Mark Q&A complete
     @PostMapping("/complete-qa")
     public ResponseEntity<?> completeQA(@RequestBody Map<String, String> request) {
-        UserProgress progress = getOrCreateProgress(request.get("username"));
+        UserProgress progress = userProgressService.getOrCreateProgress(request.get("username"));
         progress.setQaCompleted(true);
         progress.setAllTasksCompleted(true);
         userProgressRepository.save(progress);
@@ -134,7 +117,7 @@ public class UserProgressController {
     // Get today's progress
     @GetMapping("/progress/{username}")
     public ResponseEntity<?> getProgress(@PathVariable String username) {
-        UserProgress progress = getOrCreateProgress(username);
+        UserProgress progress = userProgressService.getOrCreateProgress(username);
         return ResponseEntity.ok(progress);
     }
 
@@ -157,19 +140,4 @@ public class UserProgressController {
 
         return ResponseEntity.ok(Map.of("message", "User level updated"));
     }
-
-    private UserProgress getOrCreateProgress(String username) {
-        return userProgressRepository.findByUsernameAndDate(username, LocalDate.now())
-                .orElseGet(() -> {
-                    UserProgress progress = new UserProgress();
-                    progress.setUsername(username);
-                    progress.setDate(LocalDate.now());
-                    progress.setVideoCompleted(false);
-                    progress.setRoutineCompleted(false);
-                    progress.setHabitsCompleted(false);
-                    progress.setQaCompleted(false);
-                    progress.setAllTasksCompleted(false);
-                    return userProgressRepository.save(progress);
-                });
-    }
 }
@@ -4,9 +4,13 @@ import com.yoga.attendance.entity.ManifestationVideo;
 import com.yoga.attendance.entity.Video;
 import com.yoga.attendance.repository.ManifestationVideoRepository;
 import com.yoga.attendance.repository.VideoRepository;
+import com.yoga.attendance.service.CatalogService;
+import com.yoga.attendance.service.ContentVersionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.HashMap;
 import java.util.List;
@@ -24,10 +28,21 @@ public class VideoController {
     @Autowired
     private ManifestationVideoRepository manifestationVideoRepository;
 
+    @Autowired
+    private CatalogService catalogService;
+
+    @Autowired
+    private ContentVersionService contentVersionService;
+
     // Get all videos
     @GetMapping("/videos")
-    public ResponseEntity<?> getAllVideos() {
-        return ResponseEntity.ok(videoRepository.findAllByOrderByLevelAscIdAsc());
+    public ResponseEntity<?> getAllVideos(WebRequest webRequest) {
+        String etag = contentVersionService.etag(ContentVersionService.VIDEOS);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache().cachePrivate())
+                .body(catalogService.getAllVideos());
     }
 
     // Get video by level
@@ -51,9 +66,8 @@ public class VideoController {
     @GetMapping("/manifestation-video")
     public ResponseEntity<?> getManifestationVideo() {
         try {
-            Optional<ManifestationVideo> video = manifestationVideoRepository.findFirstByOrderByIdDesc();
-            if (video.isPresent()) {
-                ManifestationVideo v = video.get();
+            ManifestationVideo v = catalogService.getManifestationVideo();
+            if (v != null) {
                 Map<String, Object> response = new HashMap<>();
                 response.put("id", v.getId());
                 response.put("name", v.getName());
@@ -95,12 +109,12 @@ public class VideoController {
                 video.setDescription(videoData.getDescription());
                 return ResponseEntity.ok(Map.of(
                         "message", "Video updated for Level " + videoData.getLevel(),
-                        "video", videoRepository.save(video)));
+                        "video", catalogService.saveVideo(video)));
             } else {
                 // Add new video
                 return ResponseEntity.ok(Map.of(
                         "message", "Video added for Level " + videoData.getLevel(),
-                        "video", videoRepository.save(videoData)));
+                        "video", catalogService.saveVideo(videoData)));
             }
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -117,11 +131,11 @@ public class VideoController {
             existingVideo.setUrl(video.getUrl());
             return ResponseEntity.ok(Map.of(
                     "message", "Manifestation video updated",
-                    "video", manifestationVideoRepository.save(existingVideo)));
+                    "video", catalogService.saveManifestationVideo(existingVideo)));
         } else {
             return ResponseEntity.ok(Map.of(
                     "message", "Manifestation video added",
-                    "video", manifestationVideoRepository.save(video)));
+                    "video", catalogService.saveManifestationVideo(video)));
         }
     }
 
@@ -131,4 +145,15 @@ public class VideoController {
         boolean exists = manifestationVideoRepository.findFirstByOrderByIdDesc().isPresent();
         return ResponseEntity.ok(Map.of("exists", exists));
     }
+
+    // Admin: Catalog cache hit/miss counters per cache
+    @GetMapping("/admin/cache-stats")
+    public ResponseEntity<?> getCacheStats(
+            @org.springframework.security.core.annotation.AuthenticationPrincipal org.springframework.security.core.userdetails.UserDetails currentUser) {
+        if (currentUser == null || currentUser.getAuthorities().stream()
+                .noneMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))) {
+            return ResponseEntity.status(403).body(Map.of("error", "Admin access required"));
+        }
+        return ResponseEntity.ok(catalogService.getCacheStats());
+    }
 }
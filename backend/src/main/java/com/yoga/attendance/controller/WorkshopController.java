@@ -2,10 +2,13 @@ package com.yoga.attendance.controller;
 
 import com.yoga.attendance.entity.Workshop;
 import com.yoga.attendance.repository.WorkshopRepository;
+import com.yoga.attendance.service.ContentVersionService;
 import com.yoga.attendance.service.NotificationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -17,12 +20,18 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class WorkshopController {
 
+    // Listed workshops also drop out as they end, so their ETag rolls over on this interval too
+    private static final long LISTING_ETAG_WINDOW_MILLIS = 5 * 60 * 1000;
+
     @Autowired
     private WorkshopRepository workshopRepository;
 
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private ContentVersionService contentVersionService;
+
     // Admin: Add workshop
     @PostMapping("/admin/workshop")
     public ResponseEntity<?> addWorkshop(@RequestBody Workshop workshop) {
@@ -30,6 +39,7 @@ public class WorkshopController {
             System.out.println("Received workshop: " + workshop);
             boolean isNew = workshop.getId() == null;
             Workshop saved = workshopRepository.save(workshop);
+            contentVersionService.bump(ContentVersionService.WORKSHOPS);
             System.out.println("Saved workshop with ID: " + saved.getId());
 
             // Only notify users about NEW workshops, not updates
@@ -39,7 +49,7 @@ public class WorkshopController {
                         "New " + workshopType,
                         workshop.getTitle() + " - " + workshop.getDescription(),
                         "WORKSHOP");
-                System.out.println("Notification sent for new workshop: " + workshop.getTitle());
+                System.out.println("Notification queued for new workshop: " + workshop.getTitle());
             } else {
                 System.out.println("Workshop updated, no notification sent: " + workshop.getTitle());
             }
@@ -60,12 +70,17 @@ public class WorkshopController {
 
     // Get workshops by level (only upcoming, not expired)
     @GetMapping("/workshops/{level}")
-    public ResponseEntity<?> getWorkshopsByLevel(@PathVariable Integer level) {
+    public ResponseEntity<?> getWorkshopsByLevel(@PathVariable Integer level, WebRequest webRequest) {
         try {
+            String etag = contentVersionService.etag(ContentVersionService.WORKSHOPS)
+                    + "." + Long.toHexString(System.currentTimeMillis() / LISTING_ETAG_WINDOW_MILLIS);
+            if (webRequest.checkNotModified(etag)) {
+                return null;
+            }
             List<Workshop> workshops = workshopRepository
                     .findByLevelAndTypeAndActiveTrueAndEndTimeAfterOrderByStartTimeAsc(level, "upcoming",
                             LocalDateTime.now());
-            return ResponseEntity.ok(workshops);
+            return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache().cachePrivate()).body(workshops);
         } catch (Exception e) {
             return ResponseEntity.ok(new ArrayList<>());
         }
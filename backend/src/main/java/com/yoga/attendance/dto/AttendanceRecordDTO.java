@@ -0,0 +1,20 @@
+package com.yoga.attendance.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+// Flat attendance row with the owning user's username and name, built by JPQL constructor expressions
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceRecordDTO {
+    private Long id;
+    private String username;
+    private String name;
+    private LocalDateTime date;
+    private Boolean attended;
+    private Integer level;
+    private String deviceInfo;
+}
@@ -0,0 +1,30 @@
+package com.yoga.attendance.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "attendance_counters", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_counter_username_level", columnNames = {"username", "level"})
+})
+@Data
+public class AttendanceCounter {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "attendance_counters_seq")
+    @SequenceGenerator(name = "attendance_counters_seq", sequenceName = "attendance_counters_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Column(nullable = false)
+    private Integer level;
+
+    // Number of attended (Present) days recorded at this level
+    @Column(nullable = false)
+    private Long attendedDays = 0L;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
@@ -0,0 +1,39 @@
+package com.yoga.attendance.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "attendance_daily_rollups", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_rollup_date_level", columnNames = {"rollupDate", "level"})
+}, indexes = {
+    @Index(name = "idx_rollup_stale", columnList = "stale")
+})
+@Data
+public class AttendanceDailyRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "attendance_daily_rollups_seq")
+    @SequenceGenerator(name = "attendance_daily_rollups_seq", sequenceName = "attendance_daily_rollups_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate rollupDate;
+
+    @Column(nullable = false)
+    private Integer level;
+
+    @Column(nullable = false)
+    private Long presentCount = 0L;
+
+    @Column(nullable = false)
+    private Long absentCount = 0L;
+
+    // Set when an attendance row for this date is edited after it was rolled up
+    @Column(nullable = false)
+    private Boolean stale = false;
+
+    @Column(nullable = false)
+    private LocalDateTime computedAt = LocalDateTime.now();
+}
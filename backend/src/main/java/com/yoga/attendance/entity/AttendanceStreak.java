@@ -0,0 +1,29 @@
+package com.yoga.attendance.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "attendance_streaks", indexes = {
+    @Index(name = "idx_streak_last_present", columnList = "lastPresentDate"),
+    @Index(name = "idx_streak_current", columnList = "currentStreak")
+})
+@Data
+public class AttendanceStreak {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "attendance_streaks_seq")
+    @SequenceGenerator(name = "attendance_streaks_seq", sequenceName = "attendance_streaks_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private String username;
+
+    @Column(nullable = false)
+    private Integer currentStreak = 0;
+
+    @Column(nullable = false)
+    private Integer longestStreak = 0;
+
+    private LocalDate lastPresentDate;
+}
@@ -0,0 +1,53 @@
+package com.yoga.attendance.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "broadcast_jobs", indexes = {
+    @Index(name = "idx_broadcast_status", columnList = "status"),
+    @Index(name = "idx_broadcast_created_at", columnList = "createdAt")
+})
+@Data
+public class BroadcastJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(columnDefinition = "TEXT")
+    private String message;
+
+    private String type;
+
+    @Column(nullable = false)
+    private String status = "QUEUED"; // QUEUED, RUNNING, COMPLETED, FAILED
+
+    @Column(nullable = false)
+    private Long totalRecipients = 0L;
+
+    @Column(nullable = false)
+    private Long processedRecipients = 0L;
+
+    // Keyset cursor (users.id) of the last recipient chunk written, so a restarted job resumes where it stopped
+    @Column(nullable = false)
+    private Long lastRecipientId = 0L;
+
+    // Instance running the job and until when its claim holds; another instance may take over a RUNNING
+    // job only once the lease has expired (see BroadcastJobRepository.claim)
+    @Column(length = 100)
+    private String owner;
+    private LocalDateTime leaseUntil;
+
+    @Column(length = 1000)
+    private String error;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,26 @@
+package com.yoga.attendance.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+// A single broadcast a user opened that is newer than their read-all cursor
+@Entity
+@Table(name = "broadcast_reads", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_broadcast_read", columnNames = {"username", "broadcastId"})
+})
+@Data
+public class BroadcastRead {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Column(nullable = false)
+    private Long broadcastId;
+
+    @Column(nullable = false)
+    private LocalDateTime readAt = LocalDateTime.now();
+}
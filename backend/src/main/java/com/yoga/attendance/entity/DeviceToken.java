@@ -4,7 +4,9 @@ import jakarta.persistence.*;
 import lombok.Data;
 
 @Entity
-@Table(name = "device_tokens")
+@Table(name = "device_tokens", indexes = {
+    @Index(name = "idx_device_token_username", columnList = "username")
+})
 @Data
 public class DeviceToken {
     @Id
@@ -5,7 +5,9 @@ import lombok.Data;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "healing_uploads")
+@Table(name = "healing_uploads", indexes = {
+    @Index(name = "idx_healing_active_expiry", columnList = "isActive, expiryDate, uploadTimestamp")
+})
 @Data
 public class HealingUpload {
     @Id
@@ -24,6 +26,10 @@ public class HealingUpload {
     @Column(nullable = false)
     private String photoUrl;
 
+    // Resized renditions of photoUrl, filled in asynchronously after upload
+    private String thumbnailUrl;
+    private String mediumUrl;
+
     @Column(nullable = false)
     private LocalDateTime uploadTimestamp;
 
@@ -33,6 +39,10 @@ public class HealingUpload {
     @Column(nullable = false)
     private Boolean isActive = true;
 
+    // Set together with isActive = false by the purge and cleared once the blobs are released, so a release
+    // that failed is retried by the next run; null on rows purged before this existed
+    private Boolean releasePending;
+
     // Helper to check if expired
     public boolean isExpired() {
         return LocalDateTime.now().isAfter(expiryDate);
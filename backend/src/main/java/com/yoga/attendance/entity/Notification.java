@@ -5,11 +5,17 @@ import lombok.Data;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+    @Index(name = "idx_notification_user_created", columnList = "username, createdAt, id"),
+    @Index(name = "idx_notification_user_read", columnList = "username, is_read"),
+    @Index(name = "idx_notification_type_created", columnList = "type, createdAt")
+})
 @Data
 public class Notification {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence (a table on MySQL) instead of IDENTITY so Hibernate can batch inserts; see IdSequenceSeeder
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notifications_seq")
+    @SequenceGenerator(name = "notifications_seq", sequenceName = "notifications_seq", allocationSize = 50)
     private Long id;
     
     private String username;
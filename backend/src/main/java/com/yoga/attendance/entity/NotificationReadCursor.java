@@ -0,0 +1,20 @@
+package com.yoga.attendance.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+// Every broadcast with id <= broadcastReadUpTo counts as read for this user (set by "mark all as read")
+@Entity
+@Table(name = "notification_read_cursors")
+@Data
+public class NotificationReadCursor {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private String username;
+
+    @Column(nullable = false)
+    private Long broadcastReadUpTo = 0L;
+}
@@ -0,0 +1,33 @@
+package com.yoga.attendance.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+// One stored file in the content-addressed upload store; refCount is the number of rows pointing at it
+@Entity
+@Table(name = "upload_blobs", indexes = {
+    @Index(name = "idx_upload_blob_hash", columnList = "hash", unique = true)
+})
+@Data
+public class UploadBlob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Lowercase hex SHA-256 of the content
+    @Column(nullable = false, length = 64)
+    private String hash;
+
+    @Column(nullable = false, length = 10)
+    private String extension;
+
+    @Column(nullable = false)
+    private Long sizeBytes;
+
+    @Column(nullable = false)
+    private Integer refCount = 1;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
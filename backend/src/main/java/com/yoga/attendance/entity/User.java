@@ -2,6 +2,7 @@ package com.yoga.attendance.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -62,6 +63,15 @@ public class User {
 
     private String profilePictureUrl;
 
+    // Resized renditions of profilePictureUrl, filled in asynchronously after upload
+    private String profilePictureThumbnailUrl;
+    private String profilePictureMediumUrl;
+
+    // Day the app-open attendance reminder was last sent. Only written by UserRepository.claimAppOpenReminder,
+    // so entity saves can never roll it back.
+    @Column(name = "last_reminder_date", insertable = false, updatable = false)
+    private LocalDate lastReminderDate;
+
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Attendance> attendances;
 
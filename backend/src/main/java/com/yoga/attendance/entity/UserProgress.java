@@ -9,7 +9,8 @@ import java.time.LocalDate;
 @Data
 public class UserProgress {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_progress_seq")
+    @SequenceGenerator(name = "user_progress_seq", sequenceName = "user_progress_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
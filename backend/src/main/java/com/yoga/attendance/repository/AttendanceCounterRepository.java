@@ -0,0 +1,32 @@
+package com.yoga.attendance.repository;
+
+import com.yoga.attendance.entity.AttendanceCounter;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface AttendanceCounterRepository extends JpaRepository<AttendanceCounter, Long> {
+    Optional<AttendanceCounter> findByUsernameAndLevel(String username, Integer level);
+
+    // Locks every counter (and the gaps between them) until the reconcile commits
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM AttendanceCounter c")
+    List<AttendanceCounter> findAllForUpdate();
+
+    // Atomic in-place adjustment, returns 0 when the counter row does not exist yet
+    @Modifying
+    @Query("UPDATE AttendanceCounter c SET c.attendedDays = c.attendedDays + :delta, c.updatedAt = :now " +
+           "WHERE c.username = :username AND c.level = :level")
+    int adjust(@Param("username") String username, @Param("level") Integer level,
+               @Param("delta") long delta, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM AttendanceCounter c WHERE c.username = :username")
+    void deleteByUsername(@Param("username") String username);
+}
@@ -0,0 +1,25 @@
+package com.yoga.attendance.repository;
+
+import com.yoga.attendance.entity.AttendanceDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface AttendanceDailyRollupRepository extends JpaRepository<AttendanceDailyRollup, Long> {
+    List<AttendanceDailyRollup> findByRollupDate(LocalDate rollupDate);
+    List<AttendanceDailyRollup> findByRollupDateBetweenOrderByRollupDateAsc(LocalDate from, LocalDate to);
+    Optional<AttendanceDailyRollup> findTopByOrderByRollupDateDesc();
+
+    @Query("SELECT DISTINCT r.rollupDate FROM AttendanceDailyRollup r WHERE r.stale = true")
+    List<LocalDate> findStaleDates();
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE AttendanceDailyRollup r SET r.stale = true WHERE r.rollupDate = :date")
+    int markStale(@Param("date") LocalDate date);
+}
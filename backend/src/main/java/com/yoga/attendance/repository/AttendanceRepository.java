@@ -1,18 +1,76 @@
 package com.yoga.attendance.repository;
 
+import com.yoga.attendance.dto.AttendanceRecordDTO;
 import com.yoga.attendance.entity.Attendance;
 import com.yoga.attendance.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
     List<Attendance> findByUserOrderByAttendanceDateDesc(User user);
     List<Attendance> findAllByOrderByAttendanceDateDesc();
     Optional<Attendance> findByUserAndAttendanceDateBetween(User user, LocalDateTime start, LocalDateTime end);
-    
+    long countByUserAndLevelAndAttendedTrue(User user, Integer level);
+
+    // Rows of [username, level, attendedDays] used to rebuild attendance_counters
+    @Query("SELECT a.user.username, a.level, COUNT(a) FROM Attendance a " +
+           "WHERE a.attended = true GROUP BY a.user.username, a.level")
+    List<Object[]> countAttendedDaysGroupedByUserAndLevel();
+
+    // Rows of [level, attended, count] for one day, used by the daily rollup
+    @Query("SELECT a.level, a.attended, COUNT(a) FROM Attendance a JOIN a.user u " +
+           "WHERE u.username <> 'admin' AND a.attendanceDate >= :start AND a.attendanceDate < :end " +
+           "GROUP BY a.level, a.attended")
+    List<Object[]> countByLevelAndAttendedBetween(@Param("start") LocalDateTime start,
+                                                   @Param("end") LocalDateTime end);
+
+    @Query("SELECT u.username FROM Attendance a JOIN a.user u " +
+           "WHERE u.username <> 'admin' AND a.attended = true " +
+           "AND a.attendanceDate >= :start AND a.attendanceDate < :end")
+    List<String> findPresentUsernamesBetween(@Param("start") LocalDateTime start,
+                                             @Param("end") LocalDateTime end);
+
+    // One user's present days, oldest first, for rebuilding their streak
+    @Query("SELECT a.attendanceDate FROM Attendance a WHERE a.user.username = :username AND a.attended = true " +
+           "ORDER BY a.attendanceDate ASC")
+    List<LocalDateTime> findAttendedDatesByUsername(@Param("username") String username);
+
+    @Query("SELECT MIN(a.attendanceDate) FROM Attendance a")
+    Optional<LocalDateTime> findEarliestAttendanceDate();
+
+    String RECORD_SELECT = "SELECT new com.yoga.attendance.dto.AttendanceRecordDTO(" +
+            "a.id, u.username, u.name, a.attendanceDate, a.attended, a.level, a.deviceInfo) " +
+            "FROM Attendance a JOIN a.user u WHERE u.username <> 'admin' ";
+
+    // Keyset pagination on (attendanceDate, id); idx_attendance_date already carries the primary key in InnoDB
+    @Query(RECORD_SELECT + "ORDER BY a.attendanceDate DESC, a.id DESC")
+    List<AttendanceRecordDTO> findRecordsFirstPage(Pageable pageable);
+
+    @Query(RECORD_SELECT + "AND (a.attendanceDate < :cursorDate " +
+           "OR (a.attendanceDate = :cursorDate AND a.id < :cursorId)) " +
+           "ORDER BY a.attendanceDate DESC, a.id DESC")
+    List<AttendanceRecordDTO> findRecordsBefore(@Param("cursorDate") LocalDateTime cursorDate,
+                                                @Param("cursorId") Long cursorId,
+                                                Pageable pageable);
+
+    @Query(RECORD_SELECT + "ORDER BY a.attendanceDate DESC, a.id DESC")
+    List<AttendanceRecordDTO> findAllRecords();
+
+    // Row-by-row MySQL streaming (fetch size Integer.MIN_VALUE); must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query(RECORD_SELECT + "ORDER BY a.attendanceDate DESC, a.id DESC")
+    Stream<AttendanceRecordDTO> streamAllRecords();
+
     @Transactional
     void deleteByUser(User user);
 }
@@ -0,0 +1,26 @@
+package com.yoga.attendance.repository;
+
+import com.yoga.attendance.entity.AttendanceStreak;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface AttendanceStreakRepository extends JpaRepository<AttendanceStreak, Long> {
+    Optional<AttendanceStreak> findByUsername(String username);
+    List<AttendanceStreak> findByUsernameIn(Collection<String> usernames);
+    long countByLastPresentDateGreaterThanEqual(LocalDate since);
+
+    // Streaks still alive (present today or yesterday), longest first
+    @Query("SELECT s FROM AttendanceStreak s WHERE s.lastPresentDate >= :since ORDER BY s.currentStreak DESC")
+    List<AttendanceStreak> findLiveStreaks(@Param("since") LocalDate since, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM AttendanceStreak s WHERE s.username = :username")
+    void deleteByUsername(@Param("username") String username);
+}
@@ -0,0 +1,65 @@
+package com.yoga.attendance.repository;
+
+import com.yoga.attendance.entity.BroadcastJob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface BroadcastJobRepository extends JpaRepository<BroadcastJob, Long> {
+    List<BroadcastJob> findTop20ByOrderByCreatedAtDesc();
+
+    // Jobs an instance may pick up: queued ones, and running ones whose owner stopped renewing its lease
+    @Query("SELECT b.id FROM BroadcastJob b WHERE b.status = 'QUEUED' " +
+           "OR (b.status = 'RUNNING' AND (b.leaseUntil IS NULL OR b.leaseUntil < :now))")
+    List<Long> findClaimableIds(@Param("now") LocalDateTime now);
+
+    // Compare-and-set claim; returns 1 only for the one instance that gets the job
+    @Transactional
+    @Modifying
+    @Query("UPDATE BroadcastJob b SET b.status = 'RUNNING', b.owner = :owner, b.leaseUntil = :leaseUntil, " +
+           "b.startedAt = COALESCE(b.startedAt, :now) WHERE b.id = :id AND (b.status = 'QUEUED' " +
+           "OR (b.status = 'RUNNING' AND (b.leaseUntil IS NULL OR b.leaseUntil < :now)))")
+    int claim(@Param("id") Long id, @Param("owner") String owner,
+              @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    // Record a finished chunk and renew the lease; 0 means the lease was lost and the job belongs elsewhere now
+    @Transactional
+    @Modifying
+    @Query("UPDATE BroadcastJob b SET b.lastRecipientId = :lastRecipientId, " +
+           "b.processedRecipients = :processedRecipients, b.leaseUntil = :leaseUntil " +
+           "WHERE b.id = :id AND b.owner = :owner AND b.status = 'RUNNING'")
+    int recordProgress(@Param("id") Long id, @Param("owner") String owner,
+                       @Param("lastRecipientId") Long lastRecipientId,
+                       @Param("processedRecipients") Long processedRecipients,
+                       @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE BroadcastJob b SET b.status = :status, b.error = :error, b.finishedAt = :finishedAt, " +
+           "b.leaseUntil = null WHERE b.id = :id AND b.owner = :owner AND b.status = 'RUNNING'")
+    int finish(@Param("id") Long id, @Param("owner") String owner, @Param("status") String status,
+               @Param("error") String error, @Param("finishedAt") LocalDateTime finishedAt);
+
+    // Broadcasts a user can see: those sent since the account was created
+    List<BroadcastJob> findByCreatedAtGreaterThanEqualOrderByCreatedAtDesc(LocalDateTime since);
+    long countByCreatedAtGreaterThanEqualAndIdGreaterThan(LocalDateTime since, Long afterId);
+    Optional<BroadcastJob> findTopByOrderByIdDesc();
+
+    // Inbox keyset pages. Broadcasts appear in the inbox with id = -jobId, so "id DESC" there is jobId ASC here.
+    @Query("SELECT b FROM BroadcastJob b WHERE b.createdAt >= :since ORDER BY b.createdAt DESC, b.id ASC")
+    List<BroadcastJob> findInboxFirstPage(@Param("since") LocalDateTime since, Pageable pageable);
+
+    @Query("SELECT b FROM BroadcastJob b WHERE b.createdAt >= :since " +
+           "AND (b.createdAt < :cursorDate OR (b.createdAt = :cursorDate AND b.id > :minJobId)) " +
+           "ORDER BY b.createdAt DESC, b.id ASC")
+    List<BroadcastJob> findInboxPageBefore(@Param("since") LocalDateTime since,
+                                           @Param("cursorDate") LocalDateTime cursorDate,
+                                           @Param("minJobId") Long minJobId,
+                                           Pageable pageable);
+}
@@ -0,0 +1,30 @@
+package com.yoga.attendance.repository;
+
+import com.yoga.attendance.entity.BroadcastRead;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface BroadcastReadRepository extends JpaRepository<BroadcastRead, Long> {
+    boolean existsByUsernameAndBroadcastId(String username, Long broadcastId);
+
+    @Query("SELECT r.broadcastId FROM BroadcastRead r WHERE r.username = :username AND r.broadcastId > :afterId")
+    List<Long> findBroadcastIdsAfter(@Param("username") String username, @Param("afterId") Long afterId);
+
+    // Reads of broadcasts the user can still see (id above the cursor and not older than the account)
+    @Query("SELECT COUNT(r) FROM BroadcastRead r, BroadcastJob b WHERE r.broadcastId = b.id " +
+           "AND r.username = :username AND r.broadcastId > :afterId AND b.createdAt >= :since")
+    long countVisibleReadsAfter(@Param("username") String username, @Param("afterId") Long afterId,
+                                @Param("since") LocalDateTime since);
+
+    @Modifying
+    @Query("DELETE FROM BroadcastRead r WHERE r.username = :username AND r.broadcastId <= :upTo")
+    int deleteByUsernameUpTo(@Param("username") String username, @Param("upTo") Long upTo);
+
+    @Modifying
+    @Query("DELETE FROM BroadcastRead r WHERE r.username = :username")
+    void deleteByUsername(@Param("username") String username);
+}
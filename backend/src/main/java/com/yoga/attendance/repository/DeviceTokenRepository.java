@@ -2,10 +2,21 @@ package com.yoga.attendance.repository;
 
 import com.yoga.attendance.entity.DeviceToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface DeviceTokenRepository extends JpaRepository<DeviceToken, Long> {
     List<DeviceToken> findByUsername(String username);
+    List<DeviceToken> findByUsernameIn(Collection<String> usernames);
     Optional<DeviceToken> findByUsernameAndToken(String username, String token);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM DeviceToken d WHERE d.token IN :tokens")
+    int deleteByTokenIn(@Param("tokens") Collection<String> tokens);
 }
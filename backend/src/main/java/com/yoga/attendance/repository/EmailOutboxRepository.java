@@ -0,0 +1,37 @@
+package com.yoga.attendance.repository;
+
+import com.yoga.attendance.entity.EmailOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    @Query("SELECT e.id FROM EmailOutbox e WHERE e.status = 'PENDING' AND e.nextAttemptAt <= :now ORDER BY e.nextAttemptAt ASC")
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Compare-and-set claim so two instances never send the same row
+    @Transactional
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.status = 'SENDING', e.claimedAt = :now WHERE e.id = :id AND e.status = 'PENDING'")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Rows left in SENDING by a worker that died mid-batch go back to the queue
+    @Transactional
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.status = 'PENDING' WHERE e.status = 'SENDING' AND e.claimedAt < :before")
+    int releaseStale(@Param("before") LocalDateTime before);
+
+    // Rows carry OTP codes and addresses, so finished ones are not kept: SENT by send time, FAILED by the
+    // time of their last attempt (every attempt starts with a claim)
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM EmailOutbox e WHERE (e.status = 'SENT' AND e.sentAt < :before) " +
+           "OR (e.status = 'FAILED' AND e.claimedAt < :before)")
+    int deleteFinishedBefore(@Param("before") LocalDateTime before);
+}
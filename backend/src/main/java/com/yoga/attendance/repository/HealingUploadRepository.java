@@ -1,8 +1,13 @@
 package com.yoga.attendance.repository;
 
 import com.yoga.attendance.entity.HealingUpload;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -12,4 +17,44 @@ public interface HealingUploadRepository extends JpaRepository<HealingUpload, Lo
     List<HealingUpload> findByIsActiveTrueAndExpiryDateAfterOrderByUploadTimestampDesc(LocalDateTime now);
 
     List<HealingUpload> findByUsernameAndIsActiveTrueOrderByUploadTimestampDesc(String username);
+
+    // Skips rows that were already deactivated or given variants; on 0 the caller releases the variant blobs
+    @Transactional
+    @Modifying
+    @Query("UPDATE HealingUpload h SET h.thumbnailUrl = :thumbnailUrl, h.mediumUrl = :mediumUrl " +
+           "WHERE h.id = :id AND h.isActive = true AND h.thumbnailUrl IS NULL")
+    int updateVariants(@Param("id") Long id,
+                       @Param("thumbnailUrl") String thumbnailUrl,
+                       @Param("mediumUrl") String mediumUrl);
+
+    // Oldest-expired first; served by idx_healing_active_expiry
+    @Query("SELECT h FROM HealingUpload h WHERE h.isActive = true AND h.expiryDate <= :now ORDER BY h.expiryDate ASC")
+    List<HealingUpload> findExpired(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Returns 1 only for the caller that flipped the row, which then owns releasing its blobs
+    @Transactional
+    @Modifying
+    @Query("UPDATE HealingUpload h SET h.isActive = false, h.releasePending = true WHERE h.id = :id AND h.isActive = true")
+    int deactivate(@Param("id") Long id);
+
+    // Deactivated rows whose blobs are not (all) released yet
+    @Query("SELECT h FROM HealingUpload h WHERE h.isActive = false AND h.releasePending = true ORDER BY h.id ASC")
+    List<HealingUpload> findReleasePending(Pageable pageable);
+
+    // Variants go first and are cleared on their own, so a retry after a failed photo release skips them
+    @Transactional
+    @Modifying
+    @Query("UPDATE HealingUpload h SET h.thumbnailUrl = null, h.mediumUrl = null WHERE h.id = :id AND h.isActive = false")
+    int clearVariants(@Param("id") Long id);
+
+    // Returns 1 only for the caller that takes the pending release; a failed release hands it back with restorePending
+    @Transactional
+    @Modifying
+    @Query("UPDATE HealingUpload h SET h.releasePending = false WHERE h.id = :id AND h.releasePending = true")
+    int claimRelease(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE HealingUpload h SET h.releasePending = true WHERE h.id = :id")
+    int restorePending(@Param("id") Long id);
 }
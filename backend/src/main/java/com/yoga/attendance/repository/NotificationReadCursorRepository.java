@@ -0,0 +1,16 @@
+package com.yoga.attendance.repository;
+
+import com.yoga.attendance.entity.NotificationReadCursor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Optional;
+
+public interface NotificationReadCursorRepository extends JpaRepository<NotificationReadCursor, Long> {
+    Optional<NotificationReadCursor> findByUsername(String username);
+
+    @Modifying
+    @Query("DELETE FROM NotificationReadCursor c WHERE c.username = :username")
+    void deleteByUsername(@Param("username") String username);
+}
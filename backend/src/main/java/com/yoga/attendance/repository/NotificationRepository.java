@@ -1,11 +1,42 @@
 package com.yoga.attendance.repository;
 
 import com.yoga.attendance.entity.Notification;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
     List<Notification> findByUsernameOrderByCreatedAtDesc(String username);
     List<Notification> findByUsernameAndReadFalseOrderByCreatedAtDesc(String username);
     long countByUsernameAndReadFalse(String username);
+
+    // Keyset pages on (createdAt, id), served by idx_notification_user_created
+    List<Notification> findByUsernameOrderByCreatedAtDescIdDesc(String username, Pageable pageable);
+
+    @Query("SELECT n FROM Notification n WHERE n.username = :username " +
+           "AND (n.createdAt < :cursorDate OR (n.createdAt = :cursorDate AND n.id < :cursorId)) " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findPageBefore(@Param("username") String username,
+                                      @Param("cursorDate") LocalDateTime cursorDate,
+                                      @Param("cursorId") Long cursorId,
+                                      Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Notification n SET n.read = true WHERE n.username = :username AND n.read = false")
+    int markAllReadByUsername(@Param("username") String username);
+
+    // One bounded chunk of the attendance reminder cleanup, range-scanned on idx_notification_type_created.
+    // JPQL has no DELETE ... LIMIT, hence the native query.
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM notifications WHERE type = 'REMINDER' AND created_at < :before " +
+                   "AND (title LIKE '%Attendance Reminder%' OR title LIKE '%Mark Your Attendance%') LIMIT :limit",
+           nativeQuery = true)
+    int deleteAttendanceRemindersBefore(@Param("before") LocalDateTime before, @Param("limit") int limit);
 }
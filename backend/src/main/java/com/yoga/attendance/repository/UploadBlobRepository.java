@@ -0,0 +1,30 @@
+package com.yoga.attendance.repository;
+
+import com.yoga.attendance.entity.UploadBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Optional;
+
+public interface UploadBlobRepository extends JpaRepository<UploadBlob, Long> {
+
+    Optional<UploadBlob> findByHash(String hash);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE UploadBlob b SET b.refCount = b.refCount + 1 WHERE b.hash = :hash")
+    int incrementRefCount(@Param("hash") String hash);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE UploadBlob b SET b.refCount = b.refCount - 1 WHERE b.hash = :hash AND b.refCount > 0")
+    int decrementRefCount(@Param("hash") String hash);
+
+    // Only removes the row once nothing references it; the caller deletes the file when this returns 1
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM UploadBlob b WHERE b.hash = :hash AND b.refCount <= 0")
+    int deleteIfUnreferenced(@Param("hash") String hash);
+}
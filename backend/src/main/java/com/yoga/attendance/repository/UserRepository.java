@@ -1,16 +1,73 @@
 package com.yoga.attendance.repository;
 
 import com.yoga.attendance.entity.User;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDate;
 import java.util.Optional;
 import java.util.List;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
+
+    // Row lock that serializes one user's attendance counter updates for the rest of the transaction
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    Optional<User> lockById(@Param("id") Long id);
     Optional<User> findByEmail(String email);
     Optional<User> findByResetToken(String resetToken);
     Optional<User> findByVerificationOtp(String verificationOtp);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
     List<User> findByApproved(Boolean approved);
+    long countByRole(User.Role role);
+
+    // Rows of [level, userCount] for students
+    @Query("SELECT u.level, COUNT(u) FROM User u WHERE u.role = com.yoga.attendance.entity.User.Role.USER GROUP BY u.level")
+    List<Object[]> countStudentsByLevel();
+
+    // Keyset page of [id, username] for broadcast recipients (every non-admin user)
+    @Query("SELECT u.id, u.username FROM User u WHERE u.role <> com.yoga.attendance.entity.User.Role.ADMIN " +
+           "AND u.id > :afterId ORDER BY u.id ASC")
+    List<Object[]> findBroadcastRecipientsAfter(@Param("afterId") Long afterId,
+                                                Pageable pageable);
+
+    @Query("SELECT COUNT(u) FROM User u WHERE u.role <> com.yoga.attendance.entity.User.Role.ADMIN")
+    long countBroadcastRecipients();
+
+    @Query("SELECT u.username FROM User u WHERE u.role = com.yoga.attendance.entity.User.Role.ADMIN")
+    List<String> findAdminUsernames();
+
+    // Atomically claim today's app-open reminder for a student; returns 1 only for the first caller of the day
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE users SET last_reminder_date = :today WHERE username = :username AND role <> 'ADMIN' " +
+                   "AND (last_reminder_date IS NULL OR last_reminder_date < :today)",
+           nativeQuery = true)
+    int claimAppOpenReminder(@Param("username") String username, @Param("today") LocalDate today);
+
+    // Compare-and-set so a background rehash never overwrites a password changed in the meantime
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newHash WHERE u.username = :username AND u.password = :oldHash")
+    int replacePasswordHash(@Param("username") String username,
+                            @Param("oldHash") String oldHash,
+                            @Param("newHash") String newHash);
+
+    // Only applies if the picture was not replaced while its variants were being generated and no variants
+    // are recorded yet; on 0 the caller releases the variant blobs it stored
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.profilePictureThumbnailUrl = :thumbnailUrl, u.profilePictureMediumUrl = :mediumUrl " +
+           "WHERE u.username = :username AND u.profilePictureUrl = :pictureUrl AND u.profilePictureThumbnailUrl IS NULL")
+    int updateProfilePictureVariants(@Param("username") String username,
+                                     @Param("pictureUrl") String pictureUrl,
+                                     @Param("thumbnailUrl") String thumbnailUrl,
+                                     @Param("mediumUrl") String mediumUrl);
 }
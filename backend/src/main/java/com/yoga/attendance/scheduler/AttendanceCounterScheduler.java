@@ -0,0 +1,23 @@
+package com.yoga.attendance.scheduler;
+
+import com.yoga.attendance.service.AttendanceService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class AttendanceCounterScheduler {
+
+    private final AttendanceService attendanceService;
+
+    // Rebuild level-up counters from the attendance table every night at 3 AM
+    @Scheduled(cron = "0 0 3 * * *")
+    public void reconcileAttendanceCounters() {
+        try {
+            attendanceService.reconcileAttendanceCounters();
+        } catch (Exception e) {
+            System.err.println("Error reconciling attendance counters: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.yoga.attendance.scheduler;
+
+import com.yoga.attendance.service.AttendanceStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.SortedSet;
+
+@Component
+@RequiredArgsConstructor
+public class AttendanceRollupScheduler {
+
+    private final AttendanceStatsService attendanceStatsService;
+
+    // Incrementally refresh daily attendance rollups every 10 minutes (one transaction per day)
+    @Scheduled(fixedDelay = 600000, initialDelay = 60000)
+    public void refreshRollups() {
+        try {
+            SortedSet<LocalDate> days = attendanceStatsService.pendingRollupDays();
+            for (LocalDate day : days) {
+                attendanceStatsService.rollupDay(day);
+            }
+            if (days.size() > 1) {
+                System.out.println("Attendance rollups refreshed for " + days.size() + " days");
+            }
+        } catch (Exception e) {
+            System.err.println("Error refreshing attendance rollups: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.yoga.attendance.scheduler;
+
+import com.yoga.attendance.entity.EmailOutbox;
+import com.yoga.attendance.repository.EmailOutboxRepository;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Delivers email_outbox rows. Due rows are claimed, split into one batch per mail worker and each batch is
+// handed to JavaMailSender.send(MimeMessage...) so it goes out over a single SMTP connection.
+// Failed messages are retried with exponential backoff until MAX_ATTEMPTS.
+@Component
+public class EmailOutboxWorker {
+
+    private static final int CLAIM_LIMIT = 50;
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long BASE_BACKOFF_SECONDS = 30;
+
+    private final EmailOutboxRepository outboxRepository;
+    private final JavaMailSender mailSender;
+    private final ThreadPoolTaskExecutor mailExecutor;
+    private final String fromEmail;
+
+    public EmailOutboxWorker(EmailOutboxRepository outboxRepository,
+                             JavaMailSender mailSender,
+                             @Qualifier("mailExecutor") ThreadPoolTaskExecutor mailExecutor,
+                             @Value("${spring.mail.username}") String fromEmail) {
+        this.outboxRepository = outboxRepository;
+        this.mailSender = mailSender;
+        this.mailExecutor = mailExecutor;
+        this.fromEmail = fromEmail;
+    }
+
+    @Scheduled(fixedDelay = 2000, initialDelay = 10000)
+    public void deliverDue() {
+        try {
+            // Workers still busy with earlier batches; their rows are SENDING, so nothing is lost by waiting
+            if (mailExecutor.getThreadPoolExecutor().getQueue().size() > 0) {
+                return;
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> claimedIds = new ArrayList<>();
+            for (Long id : outboxRepository.findDueIds(now, PageRequest.of(0, CLAIM_LIMIT))) {
+                if (outboxRepository.claim(id, now) == 1) {
+                    claimedIds.add(id);
+                }
+            }
+            if (claimedIds.isEmpty()) {
+                return;
+            }
+
+            List<EmailOutbox> claimed = outboxRepository.findAllById(claimedIds);
+            int workers = Math.max(1, mailExecutor.getMaxPoolSize());
+            int batchSize = (claimed.size() + workers - 1) / workers;
+            for (int start = 0; start < claimed.size(); start += batchSize) {
+                List<EmailOutbox> batch = claimed.subList(start, Math.min(start + batchSize, claimed.size()));
+                try {
+                    mailExecutor.execute(() -> sendBatch(batch));
+                } catch (TaskRejectedException e) {
+                    batch.forEach(row -> row.setStatus("PENDING"));
+                    outboxRepository.saveAll(batch);
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Error delivering email outbox: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelay = 300000, initialDelay = 60000)
+    public void housekeeping() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            int released = outboxRepository.releaseStale(now.minusMinutes(5));
+            int purged = outboxRepository.deleteFinishedBefore(now.minusDays(1));
+            if (released > 0 || purged > 0) {
+                System.out.println("Email outbox: released " + released + " stale, purged " + purged + " finished");
+            }
+        } catch (Exception e) {
+            System.err.println("Error cleaning email outbox: " + e.getMessage());
+        }
+    }
+
+    private void sendBatch(List<EmailOutbox> batch) {
+        List<EmailOutbox> rows = new ArrayList<>();
+        List<MimeMessage> messages = new ArrayList<>();
+        for (EmailOutbox row : batch) {
+            try {
+                messages.add(toMessage(row));
+                rows.add(row);
+            } catch (Exception e) {
+                // A message that cannot even be built will not succeed on retry
+                markFailed(row, e, true);
+            }
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        Map<Object, Exception> failures = Map.of();
+        try {
+            mailSender.send(messages.toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages();
+            if (failures.isEmpty()) {
+                rows.forEach(row -> markFailed(row, e, false));
+                return;
+            }
+        } catch (Exception e) {
+            rows.forEach(row -> markFailed(row, e, false));
+            return;
+        }
+
+        for (int i = 0; i < rows.size(); i++) {
+            Exception failure = failures.get(messages.get(i));
+            if (failure != null) {
+                markFailed(rows.get(i), failure, false);
+            } else {
+                markSent(rows.get(i));
+            }
+        }
+    }
+
+    private MimeMessage toMessage(EmailOutbox row) throws Exception {
+        MimeMessage message = mailSender.createMimeMessage();
+        // Single-part text/html: these mails have no attachments, so no multipart tree is needed
+        MimeMessageHelper helper = new MimeMessageHelper(message, false, "UTF-8");
+        helper.setFrom(fromEmail);
+        helper.setTo(row.getRecipient());
+        helper.setSubject(row.getSubject());
+        helper.setText(row.getHtmlBody(), true);
+        return message;
+    }
+
+    private void markSent(EmailOutbox row) {
+        row.setStatus("SENT");
+        row.setAttempts(row.getAttempts() + 1);
+        row.setSentAt(LocalDateTime.now());
+        row.setLastError(null);
+        outboxRepository.save(row);
+        System.out.println("✓ Email sent to: " + row.getRecipient());
+    }
+
+    private void markFailed(EmailOutbox row, Exception e, boolean permanent) {
+        int attempts = row.getAttempts() + 1;
+        row.setAttempts(attempts);
+        String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        row.setLastError(error.length() > 1000 ? error.substring(0, 1000) : error);
+
+        if (permanent || attempts >= MAX_ATTEMPTS) {
+            row.setStatus("FAILED");
+            System.err.println("✗ Email to " + row.getRecipient() + " failed permanently: " + error);
+        } else {
+            row.setStatus("PENDING");
+            row.setNextAttemptAt(LocalDateTime.now().plusSeconds(BASE_BACKOFF_SECONDS << (attempts - 1)));
+            System.err.println("✗ Email to " + row.getRecipient() + " failed (attempt " + attempts + "), will retry: " + error);
+        }
+        outboxRepository.save(row);
+    }
+}
@@ -0,0 +1,96 @@
+package com.yoga.attendance.scheduler;
+
+import com.yoga.attendance.entity.HealingUpload;
+import com.yoga.attendance.repository.HealingUploadRepository;
+import com.yoga.attendance.service.BlobStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Deactivates expired healing uploads and releases their photo and variants from the BlobStore.
+// Works in chunks of CHUNK_SIZE rows, one short transaction per row, and stops after MAX_CHUNKS_PER_RUN
+// so a large backlog is drained over several runs instead of holding locks for one long sweep.
+// Deactivating a row also marks its release pending; each release is then claimed with a compare-and-set,
+// so overlapping runs on several instances never drop the same references twice, and a release that
+// fails is handed back and retried by the next run instead of leaking.
+@Component
+@RequiredArgsConstructor
+public class HealingUploadPurgeScheduler {
+
+    private static final int CHUNK_SIZE = 200;
+    private static final int MAX_CHUNKS_PER_RUN = 50;
+
+    private final HealingUploadRepository healingUploadRepository;
+    private final BlobStore blobStore;
+
+    // Every hour, offset from the other hourly jobs
+    @Scheduled(cron = "0 20 * * * *")
+    public void purgeExpiredUploads() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            int purged = 0;
+            long reclaimedBytes = 0;
+
+            // Releases that failed on an earlier run; one chunk per run so a persistent failure cannot spin
+            for (HealingUpload pending : healingUploadRepository.findReleasePending(PageRequest.of(0, CHUNK_SIZE))) {
+                reclaimedBytes += release(pending.getId());
+            }
+
+            for (int chunk = 0; chunk < MAX_CHUNKS_PER_RUN; chunk++) {
+                List<HealingUpload> expired = healingUploadRepository.findExpired(now, PageRequest.of(0, CHUNK_SIZE));
+                if (expired.isEmpty()) {
+                    break;
+                }
+
+                for (HealingUpload candidate : expired) {
+                    // Deactivate first: once committed nothing serves the row, and a late variant update
+                    // (which requires isActive) releases its own blobs instead of recording them
+                    if (healingUploadRepository.deactivate(candidate.getId()) == 0) {
+                        continue;
+                    }
+                    purged++;
+                    reclaimedBytes += release(candidate.getId());
+                }
+
+                if (expired.size() < CHUNK_SIZE) {
+                    break;
+                }
+            }
+
+            if (purged > 0 || reclaimedBytes > 0) {
+                System.out.println("Purged " + purged + " expired healing uploads, reclaimed "
+                        + (reclaimedBytes / 1024) + " KB");
+            }
+        } catch (Exception e) {
+            System.err.println("Error purging expired healing uploads: " + e.getMessage());
+        }
+    }
+
+    // Releases one deactivated row's blobs if its pending release can be claimed; returns the bytes freed
+    private long release(Long id) {
+        if (healingUploadRepository.claimRelease(id) == 0) {
+            return 0;
+        }
+        long freed = 0;
+        try {
+            // Re-read so variants recorded between the select and the flip are released too
+            HealingUpload upload = healingUploadRepository.findById(id).orElse(null);
+            if (upload == null) {
+                return 0;
+            }
+            freed += blobStore.release(upload.getThumbnailUrl());
+            freed += blobStore.release(upload.getMediumUrl());
+            healingUploadRepository.clearVariants(id);
+            freed += blobStore.release(upload.getPhotoUrl());
+            return freed;
+        } catch (Exception e) {
+            System.err.println("Failed to release blobs of healing upload " + id + ", will retry: " + e.getMessage());
+            healingUploadRepository.restorePending(id);
+            return freed;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.yoga.attendance.scheduler;
 
 import com.yoga.attendance.repository.WorkshopRepository;
+import com.yoga.attendance.service.ContentVersionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
@@ -13,11 +14,15 @@ public class WorkshopCleanupScheduler {
     @Autowired
     private WorkshopRepository workshopRepository;
 
+    @Autowired
+    private ContentVersionService contentVersionService;
+
     // Run every hour to delete expired workshops
     @Scheduled(cron = "0 0 * * * *")
     public void deleteExpiredWorkshops() {
         try {
             workshopRepository.deleteByEndTimeBefore(LocalDateTime.now());
+            contentVersionService.bump(ContentVersionService.WORKSHOPS);
             System.out.println("Expired workshops cleaned up at: " + LocalDateTime.now());
         } catch (Exception e) {
             System.err.println("Error cleaning up workshops: " + e.getMessage());
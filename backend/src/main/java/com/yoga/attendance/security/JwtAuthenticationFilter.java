@@ -8,7 +8,6 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -20,7 +19,8 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
+    private final TokenDenylist tokenDenylist;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -28,7 +28,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String username;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -37,12 +36,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         jwt = authHeader.substring(7);
         try {
-            username = jwtUtil.extractUsername(jwt);
+            // One parse both verifies the signature/expiry and yields the claims
+            JwtUtil.TokenClaims claims = jwtUtil.readToken(jwt);
+            String username = claims.getUsername();
+            String role = claims.getRole();
 
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+            if (username != null && role != null && claims.isAccessToken() && !tokenDenylist.isRevoked(claims)
+                    && SecurityContextHolder.getContext().getAuthentication() == null) {
+                UserDetails userDetails = PrincipalCache.principal(username, role);
 
-                if (jwtUtil.validateToken(jwt)) {
+                // The token's role must still match the account; a deleted or re-roled user has to log in again
+                boolean current = principalCache.get(username)
+                        .map(known -> known.getAuthorities().equals(userDetails.getAuthorities()))
+                        .orElse(false);
+
+                if (current) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
                             null,
@@ -2,70 +2,106 @@ package com.yoga.attendance.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import java.security.Key;
 import java.util.Date;
+import java.util.UUID;
 
 @Component
 public class JwtUtil {
-    
-    @Value("${jwt.secret}")
-    private String secret;
-    
-    @Value("${jwt.expiration}")
-    private Long expiration;
-    
-    @Value("${jwt.refresh.expiration}")
-    private Long refreshExpiration;
-    
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+
+    private final Long expiration;
+    private final Long refreshExpiration;
+
+    // Built once; the key and the parser are immutable and safe to share between request threads
+    private final Key signingKey;
+    private final JwtParser parser;
+
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Value("${jwt.expiration}") Long expiration,
+                   @Value("${jwt.refresh.expiration}") Long refreshExpiration) {
+        this.expiration = expiration;
+        this.refreshExpiration = refreshExpiration;
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
     }
-    
+
     public String generateToken(String username, String role) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(username)
                 .claim("role", role)
                 .claim("type", "access")
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                // iat only has second precision; TokenDenylist compares revocation cutoffs against this
+                .claim("iat_ms", now)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + expiration))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
-    
+
     public String generateRefreshToken(String username) {
         return Jwts.builder()
                 .setSubject(username)
                 .claim("type", "refresh")
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + refreshExpiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
-    
+
+    // Everything callers need from a token in one verified parse; throws JwtException when invalid or expired
+    public TokenClaims readToken(String token) {
+        Claims claims = extractClaims(token);
+        return new TokenClaims(
+                claims.getId(),
+                claims.getSubject(),
+                claims.get("role", String.class),
+                claims.get("type", String.class),
+                claims.getIssuedAt(),
+                claims.get("iat_ms", Long.class),
+                claims.getExpiration());
+    }
+
     public String extractUsername(String token) {
         return extractClaims(token).getSubject();
     }
-    
+
     public String extractRole(String token) {
         return extractClaims(token).get("role", String.class);
     }
-    
+
     public boolean validateToken(String token) {
         try {
             extractClaims(token);
             return true;
-        } catch (JwtException e) {
+        } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
     }
-    
+
     private Claims extractClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class TokenClaims {
+        private final String tokenId;
+        private final String username;
+        private final String role;
+        private final String type;
+        private final Date issuedAt;
+        // Millisecond issue time; null on tokens issued before the claim existed
+        private final Long issuedAtMillis;
+        private final Date expiresAt;
+
+        public boolean isAccessToken() {
+            return "access".equals(type);
+        }
     }
 }
@@ -0,0 +1,83 @@
+package com.yoga.attendance.security;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yoga.attendance.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// Authenticated principals by username, so JwtAuthenticationFilter only reaches MySQL once per user per TTL.
+// Empty entries remember deleted users. Call invalidate() whenever a user's role changes, the user is deleted
+// or all of their sessions are logged out; the TTL bounds staleness on other instances.
+@Component
+@RequiredArgsConstructor
+public class PrincipalCache {
+
+    private final UserRepository userRepository;
+
+    // Async for the same reason as TwoLevelCacheManager: a miss installs a future and queries on the caller's
+    // thread, instead of holding Caffeine's compute lock across JDBC and pinning a virtual thread's carrier
+    private final AsyncCache<String, Optional<UserDetails>> principals = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofMinutes(5))
+            .buildAsync();
+
+    public Optional<UserDetails> get(String username) {
+        Optional<UserDetails> cached = principals.synchronous().getIfPresent(username);
+        if (cached != null) {
+            return cached;
+        }
+        CompletableFuture<Optional<UserDetails>> loading = new CompletableFuture<>();
+        CompletableFuture<Optional<UserDetails>> inFlight = principals.asMap().putIfAbsent(username, loading);
+        if (inFlight != null) {
+            try {
+                return inFlight.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        try {
+            // An invalidate() during the load removes the future, so completing it does not cache the old row
+            Optional<UserDetails> principal = load(username);
+            loading.complete(principal);
+            return principal;
+        } catch (RuntimeException e) {
+            loading.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public void invalidate(String username) {
+        principals.synchronous().invalidate(username);
+        // Evict again after commit so a request racing the transaction cannot re-cache the old row
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    principals.synchronous().invalidate(username);
+                }
+            });
+        }
+    }
+
+    // Principals carry no password hash; the filter only needs the name and authorities
+    public static UserDetails principal(String username, String role) {
+        return new User(username, "", Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role)));
+    }
+
+    private Optional<UserDetails> load(String username) {
+        return userRepository.findByUsername(username)
+                .map(user -> principal(user.getUsername(), user.getRole().name()));
+    }
+}
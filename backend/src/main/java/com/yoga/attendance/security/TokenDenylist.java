@@ -0,0 +1,109 @@
+package com.yoga.attendance.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Revoked access tokens, checked by JwtAuthenticationFilter on every request without touching MySQL.
+// Single tokens are keyed by jti; "log out everywhere" stores a per-user issued-at cutoff instead of every jti.
+// Entries are dropped once the tokens they cover have expired anyway. With auth.revocation.redis.enabled the
+// revocations are also published on CHANNEL so every instance applies them (see RedisConfig).
+@Component
+public class TokenDenylist {
+
+    public static final String CHANNEL = "auth:revocations";
+
+    private final StringRedisTemplate redisTemplate;
+    private final boolean replicate;
+    private final long accessTokenLifetimeMillis;
+
+    // jti -> token expiry (epoch millis)
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    // username -> cutoff (epoch millis); tokens issued before it are revoked
+    private final Map<String, Long> revokedBefore = new ConcurrentHashMap<>();
+
+    public TokenDenylist(StringRedisTemplate redisTemplate,
+                         @Value("${auth.revocation.redis.enabled:false}") boolean replicate,
+                         @Value("${jwt.expiration}") Long accessTokenLifetimeMillis) {
+        this.redisTemplate = redisTemplate;
+        this.replicate = replicate;
+        this.accessTokenLifetimeMillis = accessTokenLifetimeMillis;
+    }
+
+    public boolean isRevoked(JwtUtil.TokenClaims claims) {
+        if (claims.getTokenId() != null && revokedTokens.containsKey(claims.getTokenId())) {
+            return true;
+        }
+        Long cutoff = revokedBefore.get(claims.getUsername());
+        if (cutoff == null) {
+            return false;
+        }
+        if (claims.getIssuedAtMillis() != null) {
+            return claims.getIssuedAtMillis() < cutoff;
+        }
+        // Tokens without iat_ms predate it and were all issued before any cutoff recorded since, so the
+        // second-precision iat may err towards revoking: anything issued up to the cutoff's second is caught
+        return claims.getIssuedAt() == null || claims.getIssuedAt().getTime() / 1000 <= cutoff / 1000;
+    }
+
+    public void revokeToken(String tokenId, Date expiresAt) {
+        if (tokenId == null || expiresAt == null || expiresAt.getTime() <= System.currentTimeMillis()) {
+            return;
+        }
+        revokedTokens.put(tokenId, expiresAt.getTime());
+        publish("jti:" + expiresAt.getTime() + ":" + tokenId);
+    }
+
+    // Compared against the tokens' millisecond iat_ms claim, so a login or refresh right after "log out
+    // everywhere" is never caught; only a token issued in the very same millisecond is ambiguous (kept valid)
+    public void revokeAllFor(String username) {
+        long cutoff = System.currentTimeMillis();
+        revokedBefore.merge(username, cutoff, Math::max);
+        publish("user-ms:" + cutoff + ":" + username);
+    }
+
+    // Applies a revocation published by any instance, including this one
+    public void apply(String message) {
+        String[] parts = message.split(":", 3);
+        if (parts.length != 3) {
+            return;
+        }
+        try {
+            long value = Long.parseLong(parts[1]);
+            if ("jti".equals(parts[0])) {
+                revokedTokens.put(parts[2], value);
+            } else if ("user-ms".equals(parts[0])) {
+                revokedBefore.merge(parts[2], value, Math::max);
+            } else if ("user".equals(parts[0])) {
+                // Epoch-seconds cutoff from an instance not yet upgraded: covered everything issued in that second
+                revokedBefore.merge(parts[2], (value + 1) * 1000, Math::max);
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Ignoring malformed revocation message: " + message);
+        }
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+        revokedBefore.values().removeIf(cutoff -> cutoff + accessTokenLifetimeMillis <= now);
+    }
+
+    private void publish(String message) {
+        if (!replicate) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(CHANNEL, message);
+        } catch (Exception e) {
+            // Still revoked on this instance; others catch up when the token expires
+            System.err.println("Failed to publish token revocation: " + e.getMessage());
+        }
+    }
+}
@@ -1,19 +1,33 @@
 package com.yoga.attendance.service;
 
+import com.yoga.attendance.dto.AttendanceRecordDTO;
 import com.yoga.attendance.dto.AttendanceRequest;
 import com.yoga.attendance.entity.Attendance;
+import com.yoga.attendance.entity.AttendanceCounter;
 import com.yoga.attendance.entity.User;
 import com.yoga.attendance.entity.UserLevel;
 import com.yoga.attendance.entity.UserProgress;
+import com.yoga.attendance.repository.AttendanceCounterRepository;
 import com.yoga.attendance.repository.AttendanceRepository;
 import com.yoga.attendance.repository.UserRepository;
 import com.yoga.attendance.repository.UserLevelRepository;
 import com.yoga.attendance.repository.UserProgressRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -23,7 +37,15 @@ public class AttendanceService {
     private final UserRepository userRepository;
     private final UserLevelRepository userLevelRepository;
     private final UserProgressRepository userProgressRepository;
+    private final AttendanceCounterRepository attendanceCounterRepository;
+    private final ObjectMapper objectMapper;
+    private final AttendanceStatsService attendanceStatsService;
 
+    private static final long DAYS_REQUIRED_FOR_LEVEL_UP = 120;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int EXPORT_FLUSH_EVERY = 1000;
+
+    @Transactional
     public Map<String, Object> markAttendance(String username, AttendanceRequest request) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -49,7 +71,8 @@ public class AttendanceService {
 
         // Check if user should level up (only if attended)
         if (request.getAttended()) {
-            checkAndUpgradeLevel(username);
+            long attendedDays = adjustAttendedDays(user, attendance.getLevel(), 1);
+            checkAndUpgradeLevel(user, attendedDays);
         }
 
         Map<String, Object> response = new HashMap<>();
@@ -58,8 +81,8 @@ public class AttendanceService {
         return response;
     }
 
-    private void checkAndUpgradeLevel(String username) {
-        User user = userRepository.findByUsername(username).orElseThrow();
+    private void checkAndUpgradeLevel(User user, long attendedDaysInCurrentLevel) {
+        String username = user.getUsername();
 
         // Get user's current level
         int currentLevel = user.getLevel();
@@ -69,14 +92,8 @@ public class AttendanceService {
             return;
         }
 
-        // Count ONLY attended (Present) days for current level
-        List<Attendance> attendances = attendanceRepository.findByUserOrderByAttendanceDateDesc(user);
-        long attendedDaysInCurrentLevel = attendances.stream()
-                .filter(a -> a.getAttended() == true && a.getLevel() == currentLevel)
-                .count();
-
         // STRICTLY require exactly 120 days before upgrade
-        if (attendedDaysInCurrentLevel >= 120) {
+        if (attendedDaysInCurrentLevel >= DAYS_REQUIRED_FOR_LEVEL_UP) {
             user.setLevel(currentLevel + 1);
             userRepository.save(user);
 
@@ -94,6 +111,60 @@ public class AttendanceService {
         }
     }
 
+    // Adjust the attended-days counter for a user's level and return the new value.
+    // Must run inside the transaction that wrote the attendance row.
+    private long adjustAttendedDays(User user, Integer level, long delta) {
+        String username = user.getUsername();
+        // Taken before the counter UPDATE: two first touches for the same user would otherwise both miss the row,
+        // both seed it and fail on uk_counter_username_level (or deadlock on the gap locks the misses leave).
+        // The second waits here, then its UPDATE sees the committed seed.
+        userRepository.lockById(user.getId());
+        if (attendanceCounterRepository.adjust(username, level, delta, LocalDateTime.now()) == 0) {
+            // First touch for this user/level: seed from the attendance table (already includes this change)
+            AttendanceCounter counter = new AttendanceCounter();
+            counter.setUsername(username);
+            counter.setLevel(level);
+            counter.setAttendedDays(attendanceRepository.countByUserAndLevelAndAttendedTrue(user, level));
+            return attendanceCounterRepository.save(counter).getAttendedDays();
+        }
+        return attendanceCounterRepository.findByUsernameAndLevel(username, level)
+                .map(AttendanceCounter::getAttendedDays)
+                .orElse(0L);
+    }
+
+    // Rebuild every attended-days counter from the attendance table. The counters are locked before the
+    // attendance rows are counted, so a check-in either finished before the count (and is in it) or waits and
+    // applies its +1 on top of the rebuilt value; none is overwritten. Missing counters are left to their first
+    // check-in, which seeds them under the user lock, so this never races a seed on the unique key.
+    @Transactional
+    public Map<String, Object> reconcileAttendanceCounters() {
+        List<AttendanceCounter> counters = attendanceCounterRepository.findAllForUpdate();
+
+        Map<String, Long> attended = new HashMap<>();
+        for (Object[] row : attendanceRepository.countAttendedDaysGroupedByUserAndLevel()) {
+            attended.put(row[0] + ":" + row[1], (Long) row[2]);
+        }
+
+        int corrected = 0;
+        LocalDateTime now = LocalDateTime.now();
+        List<AttendanceCounter> toSave = new ArrayList<>();
+        for (AttendanceCounter counter : counters) {
+            // Counters with no matching attended rows left go to 0
+            Long attendedDays = attended.getOrDefault(counter.getUsername() + ":" + counter.getLevel(), 0L);
+            if (attendedDays.equals(counter.getAttendedDays())) {
+                continue;
+            }
+            counter.setAttendedDays(attendedDays);
+            counter.setUpdatedAt(now);
+            toSave.add(counter);
+            corrected++;
+        }
+        attendanceCounterRepository.saveAll(toSave);
+
+        System.out.println("Attendance counters reconciled, corrected: " + corrected);
+        return Map.of("message", "Attendance counters reconciled", "corrected", corrected);
+    }
+
     public List<Map<String, Object>> getUserAttendance(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -115,34 +186,134 @@ public class AttendanceService {
     }
 
     public List<Map<String, Object>> getAllAttendance() {
-        List<Attendance> attendances = attendanceRepository.findAllByOrderByAttendanceDateDesc();
+        // Username and name come from the join, so no lazy User load per row
+        List<AttendanceRecordDTO> records = attendanceRepository.findAllRecords();
 
-        List<Map<String, Object>> result = new ArrayList<>();
-        for (Attendance att : attendances) {
-            // Exclude admin user attendance
-            if (!"admin".equals(att.getUser().getUsername())) {
-                Map<String, Object> map = new HashMap<>();
-                map.put("id", att.getId());
-                map.put("username", att.getUser().getUsername());
-                map.put("name", att.getUser().getName());
-                map.put("date", att.getAttendanceDate());
-                map.put("attended", att.getAttended());
-                map.put("level", att.getLevel());
-                map.put("deviceInfo", att.getDeviceInfo());
-                result.add(map);
-            }
+        List<Map<String, Object>> result = new ArrayList<>(records.size());
+        for (AttendanceRecordDTO record : records) {
+            result.add(toMap(record));
         }
 
         return result;
     }
 
+    // Keyset page of all attendance, newest first. Pass the previous page's nextCursorDate/nextCursorId to continue.
+    public Map<String, Object> getAttendancePage(LocalDateTime cursorDate, Long cursorId, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<AttendanceRecordDTO> records = (cursorDate == null || cursorId == null)
+                ? attendanceRepository.findRecordsFirstPage(limit)
+                : attendanceRepository.findRecordsBefore(cursorDate, cursorId, limit);
+
+        boolean hasMore = records.size() > pageSize;
+        if (hasMore) {
+            records = records.subList(0, pageSize);
+        }
+
+        List<Map<String, Object>> items = new ArrayList<>(records.size());
+        for (AttendanceRecordDTO record : records) {
+            items.add(toMap(record));
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("items", items);
+        response.put("hasMore", hasMore);
+        if (hasMore) {
+            AttendanceRecordDTO last = records.get(records.size() - 1);
+            response.put("nextCursorDate", last.getDate());
+            response.put("nextCursorId", last.getId());
+        }
+        return response;
+    }
+
+    // Stream every attendance row to the output as CSV or NDJSON without holding the table in memory
+    @Transactional(readOnly = true)
+    public void exportAttendance(String format, OutputStream out) throws IOException {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (csv) {
+            writer.write("id,username,name,date,attended,level,deviceInfo\n");
+        }
+
+        try (Stream<AttendanceRecordDTO> rows = attendanceRepository.streamAllRecords()) {
+            int[] written = {0};
+            rows.forEach(record -> {
+                try {
+                    if (csv) {
+                        writeCsvRow(writer, record);
+                    } else {
+                        writer.write(objectMapper.writeValueAsString(record));
+                        writer.write('\n');
+                    }
+                    if (++written[0] % EXPORT_FLUSH_EVERY == 0) {
+                        writer.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private void writeCsvRow(Writer writer, AttendanceRecordDTO record) throws IOException {
+        writer.write(String.valueOf(record.getId()));
+        writer.write(',');
+        writer.write(csvField(record.getUsername()));
+        writer.write(',');
+        writer.write(csvField(record.getName()));
+        writer.write(',');
+        writer.write(String.valueOf(record.getDate()));
+        writer.write(',');
+        writer.write(String.valueOf(record.getAttended()));
+        writer.write(',');
+        writer.write(String.valueOf(record.getLevel()));
+        writer.write(',');
+        writer.write(csvField(record.getDeviceInfo()));
+        writer.write('\n');
+    }
+
+    private String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private Map<String, Object> toMap(AttendanceRecordDTO record) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", record.getId());
+        map.put("username", record.getUsername());
+        map.put("name", record.getName());
+        map.put("date", record.getDate());
+        map.put("attended", record.getAttended());
+        map.put("level", record.getLevel());
+        map.put("deviceInfo", record.getDeviceInfo());
+        return map;
+    }
+
+    @Transactional
     public Map<String, Object> updateAttendance(Long id, Boolean attended) {
         Attendance attendance = attendanceRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Attendance not found"));
 
         boolean wasAbsent = !attendance.getAttended();
         attendance.setAttended(attended);
-        attendanceRepository.save(attendance);
+        attendanceRepository.saveAndFlush(attendance);
+
+        // Keep the level counter, the day's rollup and the user's streak in step with the Present/Absent flip
+        boolean flipped = wasAbsent == attended;
+        if (flipped) {
+            adjustAttendedDays(attendance.getUser(), attendance.getLevel(), attended ? 1 : -1);
+            attendanceStatsService.markDayStale(attendance.getAttendanceDate().toLocalDate());
+            attendanceStatsService.recomputeStreak(attendance.getUser().getUsername());
+        }
 
         // If changing from absent to present, mark user progress for that date
         if (wasAbsent && attended) {
@@ -194,6 +365,7 @@ public class AttendanceService {
                 map.put("monthsCompleted", user.getMonthsCompleted());
                 map.put("createdAt", user.getCreatedAt());
                 map.put("profilePictureUrl", user.getProfilePictureUrl());
+                map.put("profilePictureThumbnailUrl", user.getProfilePictureThumbnailUrl());
                 result.add(map);
             }
         }
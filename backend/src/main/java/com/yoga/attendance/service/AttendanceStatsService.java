@@ -0,0 +1,268 @@
+package com.yoga.attendance.service;
+
+import com.yoga.attendance.entity.AttendanceDailyRollup;
+import com.yoga.attendance.entity.AttendanceStreak;
+import com.yoga.attendance.entity.User;
+import com.yoga.attendance.repository.AttendanceDailyRollupRepository;
+import com.yoga.attendance.repository.AttendanceRepository;
+import com.yoga.attendance.repository.AttendanceStreakRepository;
+import com.yoga.attendance.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.function.Function;
+
+@Service
+@RequiredArgsConstructor
+public class AttendanceStatsService {
+
+    private final AttendanceRepository attendanceRepository;
+    private final AttendanceDailyRollupRepository rollupRepository;
+    private final AttendanceStreakRepository streakRepository;
+    private final UserRepository userRepository;
+
+    private static final int MAX_RANGE_DAYS = 3 * 366;
+
+    // Days the aggregator still has to (re)compute: everything after the last rollup, stale days and today
+    public SortedSet<LocalDate> pendingRollupDays() {
+        LocalDate today = LocalDate.now();
+        SortedSet<LocalDate> days = new TreeSet<>(rollupRepository.findStaleDates());
+
+        LocalDate from = rollupRepository.findTopByOrderByRollupDateDesc()
+                .map(AttendanceDailyRollup::getRollupDate)
+                .orElseGet(() -> attendanceRepository.findEarliestAttendanceDate()
+                        .map(LocalDateTime::toLocalDate)
+                        .orElse(today));
+        for (LocalDate day = from; !day.isAfter(today); day = day.plusDays(1)) {
+            days.add(day);
+        }
+        return days;
+    }
+
+    // Recompute the per-level rollup rows for one day and advance streaks of users present that day
+    @Transactional
+    public void rollupDay(LocalDate day) {
+        LocalDateTime start = day.atStartOfDay();
+        LocalDateTime end = start.plusDays(1);
+
+        Map<Integer, AttendanceDailyRollup> rows = new HashMap<>();
+        for (AttendanceDailyRollup existing : rollupRepository.findByRollupDate(day)) {
+            existing.setPresentCount(0L);
+            existing.setAbsentCount(0L);
+            rows.put(existing.getLevel(), existing);
+        }
+
+        for (Object[] row : attendanceRepository.countByLevelAndAttendedBetween(start, end)) {
+            Integer level = (Integer) row[0];
+            Boolean attended = (Boolean) row[1];
+            Long count = (Long) row[2];
+
+            AttendanceDailyRollup rollup = rows.computeIfAbsent(level, l -> {
+                AttendanceDailyRollup created = new AttendanceDailyRollup();
+                created.setRollupDate(day);
+                created.setLevel(l);
+                return created;
+            });
+            if (Boolean.TRUE.equals(attended)) {
+                rollup.setPresentCount(count);
+            } else {
+                rollup.setAbsentCount(count);
+            }
+        }
+
+        // Keep a marker row so empty days are not re-scanned on the next run
+        if (rows.isEmpty()) {
+            AttendanceDailyRollup empty = new AttendanceDailyRollup();
+            empty.setRollupDate(day);
+            empty.setLevel(0);
+            rows.put(0, empty);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        rows.values().forEach(rollup -> {
+            rollup.setStale(false);
+            rollup.setComputedAt(now);
+        });
+        rollupRepository.saveAll(rows.values());
+
+        advanceStreaks(day, attendanceRepository.findPresentUsernamesBetween(start, end));
+    }
+
+    private void advanceStreaks(LocalDate day, List<String> presentUsernames) {
+        if (presentUsernames.isEmpty()) {
+            return;
+        }
+
+        Map<String, AttendanceStreak> streaks = new HashMap<>();
+        for (AttendanceStreak streak : streakRepository.findByUsernameIn(presentUsernames)) {
+            streaks.put(streak.getUsername(), streak);
+        }
+
+        List<AttendanceStreak> changed = new ArrayList<>();
+        for (String username : presentUsernames) {
+            AttendanceStreak streak = streaks.computeIfAbsent(username, u -> {
+                AttendanceStreak created = new AttendanceStreak();
+                created.setUsername(u);
+                return created;
+            });
+
+            // Idempotent: a day already counted (e.g. today re-rolled every run) does not advance again
+            LocalDate last = streak.getLastPresentDate();
+            if (last != null && !last.isBefore(day)) {
+                continue;
+            }
+
+            int current = (last != null && last.equals(day.minusDays(1))) ? streak.getCurrentStreak() + 1 : 1;
+            streak.setCurrentStreak(current);
+            streak.setLongestStreak(Math.max(streak.getLongestStreak(), current));
+            streak.setLastPresentDate(day);
+            changed.add(streak);
+        }
+        streakRepository.saveAll(changed);
+    }
+
+    // Rebuild one user's streak from their whole attendance history. advanceStreaks only moves forward, so an
+    // edit to an already-processed day (updateAttendance) has to go through here to add or break a streak day.
+    @Transactional
+    public void recomputeStreak(String username) {
+        // Same exclusion as findPresentUsernamesBetween
+        if ("admin".equals(username)) {
+            return;
+        }
+
+        int current = 0;
+        int longest = 0;
+        LocalDate last = null;
+        for (LocalDateTime attendedAt : attendanceRepository.findAttendedDatesByUsername(username)) {
+            LocalDate day = attendedAt.toLocalDate();
+            if (day.equals(last)) {
+                continue;
+            }
+            current = (last != null && last.equals(day.minusDays(1))) ? current + 1 : 1;
+            longest = Math.max(longest, current);
+            last = day;
+        }
+
+        AttendanceStreak streak = streakRepository.findByUsername(username).orElse(null);
+        if (streak == null) {
+            if (last == null) {
+                return;
+            }
+            streak = new AttendanceStreak();
+            streak.setUsername(username);
+        }
+        streak.setCurrentStreak(current);
+        streak.setLongestStreak(longest);
+        streak.setLastPresentDate(last);
+        streakRepository.save(streak);
+    }
+
+    public void markDayStale(LocalDate day) {
+        rollupRepository.markStale(day);
+    }
+
+    public List<Map<String, Object>> getDailyStats(LocalDate from, LocalDate to) {
+        return bucketStats(from, to, Function.identity());
+    }
+
+    public List<Map<String, Object>> getWeeklyStats(LocalDate from, LocalDate to) {
+        return bucketStats(from, to, day -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)));
+    }
+
+    public List<Map<String, Object>> getMonthlyStats(LocalDate from, LocalDate to) {
+        return bucketStats(from, to, day -> day.withDayOfMonth(1));
+    }
+
+    // Sum daily rollups into buckets keyed by the bucket's first day
+    private List<Map<String, Object>> bucketStats(LocalDate from, LocalDate to, Function<LocalDate, LocalDate> bucketOf) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        if (from.plusDays(MAX_RANGE_DAYS).isBefore(to)) {
+            throw new IllegalArgumentException("Date range too large");
+        }
+
+        Map<LocalDate, Map<String, Object>> buckets = new TreeMap<>();
+        for (AttendanceDailyRollup rollup : rollupRepository.findByRollupDateBetweenOrderByRollupDateAsc(from, to)) {
+            if (rollup.getLevel() == 0) {
+                continue;
+            }
+            Map<String, Object> bucket = buckets.computeIfAbsent(bucketOf.apply(rollup.getRollupDate()), start -> {
+                Map<String, Object> map = new LinkedHashMap<>();
+                map.put("start", start);
+                map.put("present", 0L);
+                map.put("absent", 0L);
+                map.put("presentByLevel", new TreeMap<Integer, Long>());
+                return map;
+            });
+            bucket.put("present", (Long) bucket.get("present") + rollup.getPresentCount());
+            bucket.put("absent", (Long) bucket.get("absent") + rollup.getAbsentCount());
+            @SuppressWarnings("unchecked")
+            Map<Integer, Long> byLevel = (Map<Integer, Long>) bucket.get("presentByLevel");
+            byLevel.merge(rollup.getLevel(), rollup.getPresentCount(), Long::sum);
+        }
+        return new ArrayList<>(buckets.values());
+    }
+
+    public Map<Integer, Long> getLevelDistribution() {
+        Map<Integer, Long> distribution = new TreeMap<>();
+        for (Object[] row : userRepository.countStudentsByLevel()) {
+            distribution.put((Integer) row[0], (Long) row[1]);
+        }
+        return distribution;
+    }
+
+    public List<Map<String, Object>> getTopStreaks(int limit) {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (AttendanceStreak streak : streakRepository.findLiveStreaks(yesterday,
+                PageRequest.of(0, Math.max(1, Math.min(limit, 100))))) {
+            result.add(toMap(streak, yesterday));
+        }
+        return result;
+    }
+
+    public Map<String, Object> getUserStreak(String username) {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        return streakRepository.findByUsername(username)
+                .map(streak -> toMap(streak, yesterday))
+                .orElseGet(() -> Map.of("username", username, "currentStreak", 0, "longestStreak", 0));
+    }
+
+    public Map<String, Object> getSummary() {
+        LocalDate today = LocalDate.now();
+        long presentToday = 0;
+        long absentToday = 0;
+        for (AttendanceDailyRollup rollup : rollupRepository.findByRollupDate(today)) {
+            presentToday += rollup.getPresentCount();
+            absentToday += rollup.getAbsentCount();
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("date", today);
+        summary.put("presentToday", presentToday);
+        summary.put("absentToday", absentToday);
+        summary.put("activeUsers7d", streakRepository.countByLastPresentDateGreaterThanEqual(today.minusDays(6)));
+        summary.put("activeUsers30d", streakRepository.countByLastPresentDateGreaterThanEqual(today.minusDays(29)));
+        summary.put("totalStudents", userRepository.countByRole(User.Role.USER));
+        summary.put("levelDistribution", getLevelDistribution());
+        return summary;
+    }
+
+    private Map<String, Object> toMap(AttendanceStreak streak, LocalDate yesterday) {
+        // A streak whose last present day is before yesterday has been broken
+        boolean alive = streak.getLastPresentDate() != null && !streak.getLastPresentDate().isBefore(yesterday);
+        Map<String, Object> map = new HashMap<>();
+        map.put("username", streak.getUsername());
+        map.put("currentStreak", alive ? streak.getCurrentStreak() : 0);
+        map.put("longestStreak", streak.getLongestStreak());
+        map.put("lastPresentDate", streak.getLastPresentDate());
+        return map;
+    }
+}
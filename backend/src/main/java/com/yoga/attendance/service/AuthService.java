@@ -6,17 +6,17 @@ import com.yoga.attendance.repository.UserRepository;
 import com.yoga.attendance.repository.AttendanceRepository;
 import com.yoga.attendance.repository.UserLevelRepository;
 import com.yoga.attendance.security.JwtUtil;
+import com.yoga.attendance.security.PrincipalCache;
+import com.yoga.attendance.security.TokenDenylist;
 import com.yoga.attendance.util.InputSanitizer;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.*;
 
 @Service
@@ -26,14 +26,21 @@ public class AuthService {
     private final UserRepository userRepository;
     private final AttendanceRepository attendanceRepository;
     private final UserLevelRepository userLevelRepository;
+    private final com.yoga.attendance.repository.AttendanceCounterRepository attendanceCounterRepository;
+    private final com.yoga.attendance.repository.AttendanceStreakRepository attendanceStreakRepository;
     private final com.yoga.attendance.repository.UserProgressRepository userProgressRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtUtil jwtUtil;
     private final EmailService emailService;
     private final InputSanitizer inputSanitizer;
     private final com.yoga.attendance.repository.RefreshTokenRepository refreshTokenRepository;
     private final SessionService sessionService;
     private final NotificationService notificationService;
+    private final BroadcastService broadcastService;
+    private final PrincipalCache principalCache;
+    private final TokenDenylist tokenDenylist;
+    private final ImageVariantService imageVariantService;
+    private final BlobStore blobStore;
 
     public Map<String, Object> login(LoginRequest request) {
         return login(request, null, null);
@@ -43,7 +50,7 @@ public class AuthService {
         User user = userRepository.findByUsername(request.getUsername())
                 .orElseThrow(() -> new RuntimeException("Invalid credentials"));
 
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        if (!passwordHashingService.matches(user.getUsername(), request.getPassword(), user.getPassword())) {
             throw new RuntimeException("Invalid credentials");
         }
 
@@ -74,6 +81,7 @@ public class AuthService {
         response.put("name", user.getName());
         response.put("level", user.getLevel());
         response.put("profilePicture", user.getProfilePictureUrl());
+        response.put("profilePictureThumbnail", user.getProfilePictureThumbnailUrl());
 
         return response;
     }
@@ -103,21 +111,45 @@ public class AuthService {
     public void logout(String username, String token) {
         refreshTokenRepository.deleteByUsername(username);
         sessionService.logoutAllSessions(username);
+        principalCache.invalidate(username);
+        revokeAccessToken(token);
+        tokenDenylist.revokeAllFor(username);
     }
 
     public List<Map<String, Object>> getActiveSessions(String username) {
         return sessionService.getActiveSessions(username);
     }
 
+    public Optional<String> getSessionOwner(Long sessionId) {
+        return sessionService.getSessionOwner(sessionId);
+    }
+
     @Transactional
     public void logoutSession(Long sessionId) {
-        sessionService.logoutSession(sessionId);
+        sessionService.logoutSession(sessionId)
+                .ifPresent(session -> revokeAccessToken(session.getSessionToken()));
     }
 
     @Transactional
     public void logoutAllDevices(String username) {
         refreshTokenRepository.deleteByUsername(username);
         sessionService.logoutAllSessions(username);
+        principalCache.invalidate(username);
+        tokenDenylist.revokeAllFor(username);
+    }
+
+    // Put the token's jti on the denylist; expired or invalid tokens need no revocation
+    private void revokeAccessToken(String token) {
+        if (token == null) {
+            return;
+        }
+        String jwt = token.startsWith("Bearer ") ? token.substring(7) : token;
+        try {
+            JwtUtil.TokenClaims claims = jwtUtil.readToken(jwt);
+            tokenDenylist.revokeToken(claims.getTokenId(), claims.getExpiresAt());
+        } catch (Exception e) {
+            System.out.println("Skipping revocation of invalid or expired token: " + e.getMessage());
+        }
     }
 
     private static final java.security.SecureRandom secureRandom = new java.security.SecureRandom();
@@ -145,7 +177,7 @@ public class AuthService {
         user.setUsername(username);
         user.setEmail(email);
         user.setPhone(phone);
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHashingService.encode(request.getPassword()));
 
         // Fix: All users start as USER and require approval
         user.setRole(User.Role.USER);
@@ -200,7 +232,7 @@ public class AuthService {
             throw new RuntimeException("OTP expired");
         }
 
-        user.setPassword(passwordEncoder.encode(newPassword));
+        user.setPassword(passwordHashingService.encode(newPassword));
         user.setResetOtp(null);
         user.setResetOtpExpiry(null);
         userRepository.save(user);
@@ -224,11 +256,17 @@ public class AuthService {
             userLevelRepository.deleteByUsername(username);
             userLevelRepository.flush();
 
+            attendanceCounterRepository.deleteByUsername(username);
+            attendanceStreakRepository.deleteByUsername(username);
+            broadcastService.deleteReadState(username);
+
             attendanceRepository.deleteByUser(user);
             attendanceRepository.flush();
 
             userRepository.delete(user);
             userRepository.flush();
+            principalCache.invalidate(username);
+            releaseProfilePictureAfterCommit(user);
         } catch (Exception e) {
             throw new RuntimeException("Failed to delete user: " + e.getMessage());
         }
@@ -329,6 +367,8 @@ public class AuthService {
 
         // Delete the user account
         userRepository.delete(user);
+        principalCache.invalidate(username);
+        releaseProfilePictureAfterCommit(user);
 
         return Map.of("message", "User rejected and deleted successfully");
     }
@@ -352,34 +392,43 @@ public class AuthService {
         try {
             System.out.println("Processing profile picture upload for: " + username);
 
-            // Create uploads directory if not exists
-            Path uploadPath = Paths.get("uploads").toAbsolutePath().normalize();
-            System.out.println("Upload path: " + uploadPath);
-
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-
             // Generate unique filename
             String originalFilename = file.getOriginalFilename();
             String extension = ".jpg"; // Default
             if (originalFilename != null && originalFilename.contains(".")) {
                 extension = originalFilename.substring(originalFilename.lastIndexOf("."));
             }
-            String filename = username + "_" + System.currentTimeMillis() + extension;
-            Path filePath = uploadPath.resolve(filename);
 
-            System.out.println("Saving to: " + filePath);
+            // Save file. The File overload goes through Part.write, which renames the spooled upload into place
+            // (streamed copy only when the spool dir is on another filesystem); transferTo(Path) would always copy.
+            // The blob store then keeps a single copy of identical pictures.
+            Path tempFile = blobStore.createTempFile();
+            file.transferTo(tempFile.toFile());
+            String fileUrl = blobStore.put(tempFile, extension);
 
-            // Save file
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-
-            System.out.println("File saved successfully");
+            System.out.println("File saved successfully: " + fileUrl);
 
             // Update user profile URL (relative path for serving)
-            String fileUrl = "/uploads/" + filename;
+            List<String> previous = pictureUrls(user);
             user.setProfilePictureUrl(fileUrl);
-            userRepository.save(user);
+            user.setProfilePictureThumbnailUrl(null);
+            user.setProfilePictureMediumUrl(null);
+            try {
+                userRepository.save(user);
+            } catch (RuntimeException e) {
+                blobStore.release(fileUrl);
+                throw e;
+            }
+            previous.forEach(blobStore::release);
+
+            // Resized variants are generated off the request thread and recorded when ready
+            imageVariantService.generateVariants(fileUrl).thenAccept(variants -> {
+                if (!variants.isEmpty() && userRepository.updateProfilePictureVariants(cleanUsername, fileUrl,
+                        variants.get(ImageVariantService.THUMBNAIL),
+                        variants.get(ImageVariantService.MEDIUM)) == 0) {
+                    variants.values().forEach(blobStore::release);
+                }
+            });
 
             return Map.of("message", "Profile picture updated successfully", "url", fileUrl);
         } catch (IOException e) {
@@ -387,4 +436,33 @@ public class AuthService {
             throw new RuntimeException("Failed to store file: " + e.getMessage());
         }
     }
+
+    private List<String> pictureUrls(User user) {
+        List<String> urls = new ArrayList<>();
+        for (String url : new String[] {user.getProfilePictureUrl(), user.getProfilePictureThumbnailUrl(),
+                user.getProfilePictureMediumUrl()}) {
+            if (url != null) {
+                urls.add(url);
+            }
+        }
+        return urls;
+    }
+
+    // Files are only released once the delete has committed, so a rollback never leaves a user without a picture
+    private void releaseProfilePictureAfterCommit(User user) {
+        List<String> urls = pictureUrls(user);
+        if (urls.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            urls.forEach(blobStore::release);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                urls.forEach(blobStore::release);
+            }
+        });
+    }
 }
@@ -0,0 +1,27 @@
+package com.yoga.attendance.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+// Content-addressed store for uploaded files. Identical content is kept once and reference-counted:
+// every put() adds a reference and every release() drops one, the file going away with the last.
+// URLs returned here are what entities store and clients fetch.
+public interface BlobStore {
+
+    // Optional precompressed siblings of a stored file (<file>.br, <file>.gz), removed together with it
+    List<String> PRECOMPRESSED_SUFFIXES = List.of(".br", ".gz");
+
+    // A scratch file on the same volume as the store, for callers that write content before storing it
+    Path createTempFile() throws IOException;
+
+    // Takes ownership of the file: it is moved into the store, or deleted when the content is already stored
+    String put(Path file, String extension) throws IOException;
+
+    // Drops one reference; returns the bytes freed when that was the last one, otherwise 0
+    long release(String url);
+
+    // The stored file behind a URL, if this store owns it and it still exists
+    Optional<Path> resolve(String url);
+}
@@ -0,0 +1,288 @@
+package com.yoga.attendance.service;
+
+import com.yoga.attendance.entity.BroadcastJob;
+import com.yoga.attendance.entity.BroadcastRead;
+import com.yoga.attendance.entity.Notification;
+import com.yoga.attendance.entity.NotificationReadCursor;
+import com.yoga.attendance.entity.User;
+import com.yoga.attendance.repository.BroadcastJobRepository;
+import com.yoga.attendance.repository.BroadcastReadRepository;
+import com.yoga.attendance.repository.NotificationReadCursorRepository;
+import com.yoga.attendance.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class BroadcastService {
+
+    private static final int CHUNK_SIZE = 500;
+    // Renewed after every chunk; a job whose owner has not renewed it for this long is taken over by another instance
+    private static final Duration LEASE = Duration.ofMinutes(5);
+
+    private final BroadcastJobRepository broadcastJobRepository;
+    private final UserRepository userRepository;
+    private final BroadcastReadRepository broadcastReadRepository;
+    private final NotificationReadCursorRepository readCursorRepository;
+    private final FCMService fcmService;
+    private final TaskExecutor broadcastExecutor;
+
+    // Owner recorded on claimed jobs; unique per process so replicas never mistake each other's leases
+    private final String instanceId = UUID.randomUUID().toString();
+
+    // Jobs currently queued on or running in this instance's executor
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    public BroadcastService(BroadcastJobRepository broadcastJobRepository,
+                            UserRepository userRepository,
+                            BroadcastReadRepository broadcastReadRepository,
+                            NotificationReadCursorRepository readCursorRepository,
+                            FCMService fcmService,
+                            @Qualifier("broadcastExecutor") TaskExecutor broadcastExecutor) {
+        this.broadcastJobRepository = broadcastJobRepository;
+        this.userRepository = userRepository;
+        this.broadcastReadRepository = broadcastReadRepository;
+        this.readCursorRepository = readCursorRepository;
+        this.fcmService = fcmService;
+        this.broadcastExecutor = broadcastExecutor;
+    }
+
+    // Store the broadcast once and hand the push fan-out to a worker; returns without waiting for delivery.
+    // Users see it through getInboxItems, so no per-user notification rows are written.
+    public BroadcastJob enqueue(String title, String message, String type) {
+        BroadcastJob job = new BroadcastJob();
+        job.setTitle(title != null ? title : "Notification");
+        job.setMessage(message != null ? message : "");
+        job.setType(type != null ? type : "INFO");
+        job.setTotalRecipients(userRepository.countBroadcastRecipients());
+        job = broadcastJobRepository.save(job);
+
+        submit(job.getId());
+        System.out.println("Broadcast " + job.getId() + " queued for " + job.getTotalRecipients() + " users");
+        return job;
+    }
+
+    public BroadcastJob getJob(Long id) {
+        return broadcastJobRepository.findById(id)
+                .orElseThrow(() -> new NoSuchElementException("Broadcast not found with id: " + id));
+    }
+
+    public List<BroadcastJob> getRecentJobs() {
+        return broadcastJobRepository.findTop20ByOrderByCreatedAtDesc();
+    }
+
+    // Pick up jobs left queued (full executor queue) or abandoned by a stopped instance. Every replica runs this;
+    // the claim in run() makes sure only one of them fans out a given job.
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelay = 60000, initialDelay = 60000)
+    public void resumeUnfinishedJobs() {
+        try {
+            for (Long jobId : broadcastJobRepository.findClaimableIds(LocalDateTime.now())) {
+                submit(jobId);
+            }
+        } catch (Exception e) {
+            System.err.println("Error resuming broadcasts: " + e.getMessage());
+        }
+    }
+
+    private void submit(Long jobId) {
+        if (!inFlight.add(jobId)) {
+            return;
+        }
+        try {
+            broadcastExecutor.execute(() -> {
+                try {
+                    run(jobId);
+                } finally {
+                    inFlight.remove(jobId);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            inFlight.remove(jobId);
+            System.err.println("Broadcast queue full, job " + jobId + " will be retried");
+        }
+    }
+
+    private void run(Long jobId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (broadcastJobRepository.claim(jobId, instanceId, now, now.plus(LEASE)) == 0) {
+            return; // finished, or running on another instance under a live lease
+        }
+        BroadcastJob job = broadcastJobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return;
+        }
+
+        long lastRecipientId = job.getLastRecipientId();
+        long processed = job.getProcessedRecipients();
+        try {
+            List<Object[]> chunk;
+            while (!(chunk = userRepository.findBroadcastRecipientsAfter(
+                    lastRecipientId, PageRequest.of(0, CHUNK_SIZE))).isEmpty()) {
+                List<String> usernames = new ArrayList<>(chunk.size());
+                for (Object[] row : chunk) {
+                    usernames.add((String) row[1]);
+                }
+
+                try {
+                    // Wait for the chunk's multicast batches so pushes cannot pile up behind the fan-out
+                    fcmService.sendToUsers(usernames, job.getTitle(), job.getMessage(), "general").join();
+                } catch (Exception e) {
+                    System.err.println("Error pushing broadcast " + jobId + " chunk: " + e.getMessage());
+                }
+
+                lastRecipientId = (Long) chunk.get(chunk.size() - 1)[0];
+                processed += usernames.size();
+                if (broadcastJobRepository.recordProgress(jobId, instanceId, lastRecipientId, processed,
+                        LocalDateTime.now().plus(LEASE)) == 0) {
+                    System.err.println("Broadcast " + jobId + " lease lost, stopping on this instance");
+                    return;
+                }
+            }
+
+            broadcastJobRepository.finish(jobId, instanceId, "COMPLETED", null, LocalDateTime.now());
+            System.out.println("Broadcast " + jobId + " completed: " + processed + " users");
+        } catch (Exception e) {
+            System.err.println("Broadcast " + jobId + " failed: " + e.getMessage());
+            String error = e.getMessage() != null && e.getMessage().length() > 1000
+                    ? e.getMessage().substring(0, 1000) : e.getMessage();
+            broadcastJobRepository.finish(jobId, instanceId, "FAILED", error, LocalDateTime.now());
+        }
+    }
+
+    public Map<String, Object> toStatus(BroadcastJob job) {
+        long total = job.getTotalRecipients();
+        return Map.of(
+                "id", job.getId(),
+                "title", job.getTitle(),
+                "status", job.getStatus(),
+                "totalRecipients", total,
+                "processedRecipients", job.getProcessedRecipients(),
+                "progress", total == 0 ? 100 : Math.min(100, job.getProcessedRecipients() * 100 / total),
+                "createdAt", job.getCreatedAt());
+    }
+
+    // Broadcasts visible to the user, shaped as notifications with negated ids so they never collide
+    // with personal notification ids and can still be marked read through /notifications/{id}/read
+    public List<Notification> getInboxItems(String username) {
+        User user = userRepository.findByUsername(username).orElse(null);
+        if (user == null || user.getRole() == User.Role.ADMIN) {
+            return List.of();
+        }
+        return toInboxItems(username,
+                broadcastJobRepository.findByCreatedAtGreaterThanEqualOrderByCreatedAtDesc(user.getCreatedAt()));
+    }
+
+    // One keyset page of inbox items strictly after the merged-inbox cursor (createdAt DESC, id DESC).
+    // A cursor id is a merged id, so broadcasts after it are those with -jobId < cursorId.
+    public List<Notification> getInboxPage(String username, LocalDateTime cursorDate, Long cursorId, int limit) {
+        User user = userRepository.findByUsername(username).orElse(null);
+        if (user == null || user.getRole() == User.Role.ADMIN) {
+            return List.of();
+        }
+
+        List<BroadcastJob> jobs = cursorDate == null || cursorId == null
+                ? broadcastJobRepository.findInboxFirstPage(user.getCreatedAt(), PageRequest.of(0, limit))
+                : broadcastJobRepository.findInboxPageBefore(user.getCreatedAt(), cursorDate, -cursorId,
+                        PageRequest.of(0, limit));
+        return toInboxItems(username, jobs);
+    }
+
+    private List<Notification> toInboxItems(String username, List<BroadcastJob> jobs) {
+        if (jobs.isEmpty()) {
+            return List.of();
+        }
+
+        long readUpTo = getReadUpTo(username);
+        Set<Long> readIds = new HashSet<>(broadcastReadRepository.findBroadcastIdsAfter(username, readUpTo));
+
+        List<Notification> items = new ArrayList<>();
+        for (BroadcastJob job : jobs) {
+            Notification item = new Notification();
+            item.setId(-job.getId());
+            item.setUsername(username);
+            item.setTitle(job.getTitle());
+            item.setMessage(job.getMessage());
+            item.setType(job.getType());
+            item.setCreatedAt(job.getCreatedAt());
+            item.setRead(job.getId() <= readUpTo || readIds.contains(job.getId()));
+            items.add(item);
+        }
+        return items;
+    }
+
+    public long countUnread(String username) {
+        User user = userRepository.findByUsername(username).orElse(null);
+        if (user == null || user.getRole() == User.Role.ADMIN) {
+            return 0;
+        }
+
+        long readUpTo = getReadUpTo(username);
+        long visible = broadcastJobRepository.countByCreatedAtGreaterThanEqualAndIdGreaterThan(user.getCreatedAt(), readUpTo);
+        long read = broadcastReadRepository.countVisibleReadsAfter(username, readUpTo, user.getCreatedAt());
+        return Math.max(0, visible - read);
+    }
+
+    // Returns true when the broadcast was unread before this call
+    @Transactional
+    public boolean markRead(String username, Long broadcastId) {
+        if (!broadcastJobRepository.existsById(broadcastId)) {
+            throw new NoSuchElementException("Notification not found with id: " + -broadcastId);
+        }
+        if (broadcastId <= getReadUpTo(username)
+                || broadcastReadRepository.existsByUsernameAndBroadcastId(username, broadcastId)) {
+            return false;
+        }
+
+        BroadcastRead read = new BroadcastRead();
+        read.setUsername(username);
+        read.setBroadcastId(broadcastId);
+        broadcastReadRepository.save(read);
+        return true;
+    }
+
+    // Move the user's cursor past every existing broadcast and drop the now-redundant read rows
+    @Transactional
+    public void markAllRead(String username) {
+        Long latestId = broadcastJobRepository.findTopByOrderByIdDesc().map(BroadcastJob::getId).orElse(0L);
+        NotificationReadCursor cursor = readCursorRepository.findByUsername(username).orElseGet(() -> {
+            NotificationReadCursor created = new NotificationReadCursor();
+            created.setUsername(username);
+            return created;
+        });
+        if (latestId > cursor.getBroadcastReadUpTo()) {
+            cursor.setBroadcastReadUpTo(latestId);
+            readCursorRepository.save(cursor);
+            broadcastReadRepository.deleteByUsernameUpTo(username, latestId);
+        }
+    }
+
+    @Transactional
+    public void deleteReadState(String username) {
+        broadcastReadRepository.deleteByUsername(username);
+        readCursorRepository.deleteByUsername(username);
+    }
+
+    private long getReadUpTo(String username) {
+        return readCursorRepository.findByUsername(username)
+                .map(NotificationReadCursor::getBroadcastReadUpTo)
+                .orElse(0L);
+    }
+}
@@ -0,0 +1,97 @@
+package com.yoga.attendance.service;
+
+import com.yoga.attendance.config.TwoLevelCacheManager;
+import com.yoga.attendance.entity.DailyRoutine;
+import com.yoga.attendance.entity.HabitTask;
+import com.yoga.attendance.entity.ManifestationVideo;
+import com.yoga.attendance.entity.Video;
+import com.yoga.attendance.repository.DailyRoutineRepository;
+import com.yoga.attendance.repository.HabitTaskRepository;
+import com.yoga.attendance.repository.ManifestationVideoRepository;
+import com.yoga.attendance.repository.VideoRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+
+// Catalog content every student loads daily and only admins change. Reads are cached (see TwoLevelCacheManager);
+// every admin write goes through here so the matching cache is cleared on all instances and then its ETag
+// counter (ContentVersionService) moves on.
+@Service
+@RequiredArgsConstructor
+public class CatalogService {
+
+    public static final String VIDEOS = "catalog.videos";
+    public static final String ROUTINES = "catalog.routines";
+    public static final String HABITS = "catalog.habits";
+    public static final String MANIFESTATION_VIDEO = "catalog.manifestationVideo";
+
+    private final VideoRepository videoRepository;
+    private final DailyRoutineRepository dailyRoutineRepository;
+    private final HabitTaskRepository habitTaskRepository;
+    private final ManifestationVideoRepository manifestationVideoRepository;
+    private final TwoLevelCacheManager cacheManager;
+    private final ContentVersionService contentVersionService;
+
+    @Cacheable(cacheNames = VIDEOS, key = "'all'", sync = true)
+    public List<Video> getAllVideos() {
+        return videoRepository.findAllByOrderByLevelAscIdAsc();
+    }
+
+    @Cacheable(cacheNames = ROUTINES, key = "'active'", sync = true)
+    public List<DailyRoutine> getActiveRoutines() {
+        return dailyRoutineRepository.findByActiveTrueOrderBySequenceAsc();
+    }
+
+    @Cacheable(cacheNames = HABITS, key = "'active'", sync = true)
+    public List<HabitTask> getActiveHabits() {
+        return habitTaskRepository.findByActiveTrue();
+    }
+
+    // Null (no video configured) is cached too
+    @Cacheable(cacheNames = MANIFESTATION_VIDEO, key = "'latest'", sync = true)
+    public ManifestationVideo getManifestationVideo() {
+        return manifestationVideoRepository.findFirstByOrderByIdDesc().orElse(null);
+    }
+
+    public Video saveVideo(Video video) {
+        Video saved = videoRepository.save(video);
+        changed(VIDEOS, ContentVersionService.VIDEOS);
+        return saved;
+    }
+
+    public DailyRoutine saveRoutine(DailyRoutine routine) {
+        DailyRoutine saved = dailyRoutineRepository.save(routine);
+        changed(ROUTINES, ContentVersionService.ROUTINES);
+        return saved;
+    }
+
+    public HabitTask saveHabit(HabitTask habit) {
+        HabitTask saved = habitTaskRepository.save(habit);
+        changed(HABITS, ContentVersionService.HABITS);
+        return saved;
+    }
+
+    public void deleteHabit(Long id) {
+        habitTaskRepository.deleteById(id);
+        changed(HABITS, ContentVersionService.HABITS);
+    }
+
+    public ManifestationVideo saveManifestationVideo(ManifestationVideo video) {
+        ManifestationVideo saved = manifestationVideoRepository.save(video);
+        cacheManager.getCache(MANIFESTATION_VIDEO).clear();
+        return saved;
+    }
+
+    public Map<String, Map<String, Object>> getCacheStats() {
+        return cacheManager.getStats();
+    }
+
+    // Evict before bumping: a reader that already sees the new ETag must not be served the old cached list
+    private void changed(String cacheName, String version) {
+        cacheManager.getCache(cacheName).clear();
+        contentVersionService.bump(version);
+    }
+}
@@ -0,0 +1,105 @@
+package com.yoga.attendance.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Change counters behind the ETags of the content and notification lists. Every write to the data behind a
+// list bumps its counter, so a request whose If-None-Match carries the current tag can be answered 304
+// without loading anything. Callers must read the tag before loading the data; bumps happen after commit.
+// Counters start at the current epoch millis rather than 0, so a restarted instance never reissues an old tag.
+// With etag.versions.redis.enabled they are Redis INCR keys shared by every instance.
+@Service
+public class ContentVersionService {
+
+    public static final String VIDEOS = "videos";
+    public static final String ROUTINES = "routines";
+    public static final String HABITS = "habits";
+    public static final String WORKSHOPS = "workshops";
+    // Broadcasts and bulk deletes; per-user changes use notifications(username)
+    public static final String NOTIFICATIONS = "notifications";
+
+    private static final String KEY_PREFIX = "content-version:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final boolean shared;
+    private final Map<String, AtomicLong> localVersions = new ConcurrentHashMap<>();
+
+    public ContentVersionService(StringRedisTemplate redisTemplate,
+                                 @Value("${etag.versions.redis.enabled:false}") boolean shared) {
+        this.redisTemplate = redisTemplate;
+        this.shared = shared;
+    }
+
+    public static String notifications(String username) {
+        return NOTIFICATIONS + ":" + username;
+    }
+
+    // Entity tag over one or more counters, unquoted (Spring adds the quotes)
+    public String etag(String... names) {
+        StringBuilder tag = new StringBuilder();
+        for (String name : names) {
+            if (tag.length() > 0) {
+                tag.append('.');
+            }
+            tag.append(Long.toHexString(current(name)));
+        }
+        return tag.toString();
+    }
+
+    public long current(String name) {
+        if (shared) {
+            try {
+                String key = KEY_PREFIX + name;
+                String value = redisTemplate.opsForValue().get(key);
+                if (value == null) {
+                    redisTemplate.opsForValue().setIfAbsent(key, String.valueOf(System.currentTimeMillis()));
+                    value = redisTemplate.opsForValue().get(key);
+                }
+                if (value != null) {
+                    return Long.parseLong(value);
+                }
+            } catch (Exception e) {
+                System.err.println("Redis content version unavailable, using local counter: " + e.getMessage());
+            }
+        }
+        return localCounter(name).get();
+    }
+
+    public void bump(String name) {
+        // Bumping before commit would let a reader pair the new tag with the old rows
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    increment(name);
+                }
+            });
+            return;
+        }
+        increment(name);
+    }
+
+    private void increment(String name) {
+        localCounter(name).incrementAndGet();
+        if (shared) {
+            try {
+                String key = KEY_PREFIX + name;
+                redisTemplate.opsForValue().setIfAbsent(key, String.valueOf(System.currentTimeMillis()));
+                redisTemplate.opsForValue().increment(key);
+            } catch (Exception e) {
+                System.err.println("Failed to bump content version " + name + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private AtomicLong localCounter(String name) {
+        return localVersions.computeIfAbsent(name, n -> new AtomicLong(System.currentTimeMillis()));
+    }
+}
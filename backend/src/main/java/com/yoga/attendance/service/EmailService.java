@@ -1,121 +1,67 @@
 package com.yoga.attendance.service;
 
+import com.yoga.attendance.entity.EmailOutbox;
+import com.yoga.attendance.repository.EmailOutboxRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
+import java.util.Locale;
+import java.util.Map;
 
+// Mails are written to the email_outbox table and delivered by EmailOutboxWorker, so callers only pay for
+// one INSERT. The boolean results mean "queued", not "delivered".
 @Service
 public class EmailService {
 
     @Autowired
-    private JavaMailSender mailSender;
+    private EmailOutboxRepository outboxRepository;
 
-    @Value("${spring.mail.username}")
-    private String fromEmail;
+    @Autowired
+    private EmailTemplateService templateService;
 
     public boolean sendVerificationOtp(String to, String otp) {
+        return sendVerificationOtp(to, otp, Locale.ENGLISH);
+    }
+
+    public boolean sendVerificationOtp(String to, String otp, Locale locale) {
         System.out.println("\n=== EMAIL VERIFICATION OTP ===");
         System.out.println("To: " + to);
         System.out.println("OTP: " + otp);
         System.out.println("==============================\n");
 
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true);
-
-            helper.setFrom(fromEmail);
-            helper.setTo(to);
-            helper.setSubject("Verify your Yoga App email");
-            helper.setText(getVerificationOtpTemplate(otp), true);
-
-            mailSender.send(message);
-            System.out.println("✓ Verification OTP email sent successfully to: " + to);
-            return true;
-        } catch (Exception e) {
-            System.err.println("✗ Email sending failed: " + e.getMessage());
-            return false;
-        }
+        return enqueue(to, templateService.render("verification-otp", locale, Map.of("otp", otp)));
     }
 
     public boolean sendPasswordResetOtp(String to, String otp) {
+        return sendPasswordResetOtp(to, otp, Locale.ENGLISH);
+    }
+
+    public boolean sendPasswordResetOtp(String to, String otp, Locale locale) {
         System.out.println("\n=== PASSWORD RESET OTP ===");
         System.out.println("To: " + to);
         System.out.println("OTP: " + otp);
         System.out.println("==========================\n");
 
-        try {
-            if (to == null || !to.contains("@")) {
-                System.err.println("✗ Invalid email format");
-                return false;
-            }
-
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        return enqueue(to, templateService.render("password-reset-otp", locale, Map.of("otp", otp)));
+    }
 
-            helper.setFrom(fromEmail);
-            helper.setTo(to);
-            helper.setSubject("Sittha Viruthi Yoga - Reset Password OTP");
-            helper.setText(getResetOtpTemplate(otp), true);
+    private boolean enqueue(String to, EmailTemplateService.RenderedEmail email) {
+        if (to == null || !to.contains("@")) {
+            System.err.println("✗ Invalid email format");
+            return false;
+        }
 
-            System.out.println("Attempting to send email...");
-            mailSender.send(message);
-            System.out.println("✓ Password reset OTP email sent successfully to: " + to);
+        try {
+            EmailOutbox mail = new EmailOutbox();
+            mail.setRecipient(to);
+            mail.setSubject(email.getSubject());
+            mail.setHtmlBody(email.getHtml());
+            outboxRepository.save(mail);
+            System.out.println("✓ Email queued for: " + to);
             return true;
-
         } catch (Exception e) {
-            System.err.println("✗ Email sending failed: " + e.getMessage());
+            System.err.println("✗ Email queueing failed: " + e.getMessage());
             return false;
         }
     }
-
-    private String getResetOtpTemplate(String otp) {
-        return "<!DOCTYPE html>" +
-                "<html>" +
-                "<head><style>" +
-                ".otp-box { background-color: #00A8A8; padding: 20px; border-radius: 8px; font-size: 32px; font-weight: bold; text-align: center; margin: 20px 0; color: #FFF; letter-spacing: 8px; }"
-                +
-                "</style></head>" +
-                "<body style='font-family: Arial, sans-serif; padding: 20px;'>" +
-                "<h2>Reset Your Password</h2>" +
-                "<p>Your OTP to reset your password is:</p>" +
-                "<div class='otp-box'>" + otp + "</div>" +
-                "<p><strong>Steps:</strong></p>" +
-                "<ol>" +
-                "<li>Open the Yoga App</li>" +
-                "<li>Enter this OTP in the verification screen</li>" +
-                "<li>Enter your new password</li>" +
-                "</ol>" +
-                "<p>This OTP will expire in 10 minutes.</p>" +
-                "<p>If you didn't request this, please ignore this email.</p>" +
-                "</body>" +
-                "</html>";
-    }
-
-    private String getVerificationOtpTemplate(String otp) {
-        return "<!DOCTYPE html>" +
-                "<html>" +
-                "<head><style>" +
-                ".otp-box { background-color: #00A8A8; padding: 20px; border-radius: 8px; font-size: 32px; font-weight: bold; text-align: center; margin: 20px 0; color: #FFF; letter-spacing: 8px; }"
-                +
-                "</style></head>" +
-                "<body style='font-family: Arial, sans-serif; padding: 20px;'>" +
-                "<h2>Verify Your Email</h2>" +
-                "<p>Your OTP to verify your email is:</p>" +
-                "<div class='otp-box'>" + otp + "</div>" +
-                "<p><strong>Steps:</strong></p>" +
-                "<ol>" +
-                "<li>Open the Yoga App</li>" +
-                "<li>Enter this OTP in the verification screen</li>" +
-                "<li>Click Verify</li>" +
-                "</ol>" +
-                "<p>This OTP will expire in 10 minutes.</p>" +
-                "<p>If you didn't register, please ignore this email.</p>" +
-                "</body>" +
-                "</html>";
-    }
 }
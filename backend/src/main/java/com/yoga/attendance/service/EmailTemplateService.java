@@ -0,0 +1,143 @@
+package com.yoga.attendance.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.util.HtmlUtils;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Email templates from classpath:templates/email, parsed once at startup into literal/placeholder segments.
+// A file is "<name>.html" or a localized "<name>_<language>.html"; its first line is "Subject: ..." and
+// the rest is the HTML body. Placeholders are {{name}}; values are HTML-escaped in the body only.
+@Service
+public class EmailTemplateService {
+
+    private static final String LOCATION = "classpath:templates/email/*.html";
+    private static final String SUBJECT_PREFIX = "Subject:";
+
+    private final Map<String, EmailTemplate> templates = new HashMap<>();
+
+    public EmailTemplateService() throws IOException {
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(LOCATION)) {
+            String filename = resource.getFilename();
+            if (filename == null) {
+                continue;
+            }
+            String source = StreamUtils.copyToString(resource.getInputStream(), StandardCharsets.UTF_8);
+            templates.put(filename.substring(0, filename.length() - ".html".length()), parse(filename, source));
+        }
+        System.out.println("Loaded " + templates.size() + " email templates");
+    }
+
+    // Picks "<name>_<language>" when present, otherwise the default "<name>" template
+    public RenderedEmail render(String name, Locale locale, Map<String, String> model) {
+        EmailTemplate template = null;
+        if (locale != null && !locale.getLanguage().isEmpty()) {
+            template = templates.get(name + "_" + locale.getLanguage());
+        }
+        if (template == null) {
+            template = templates.get(name);
+        }
+        if (template == null) {
+            throw new IllegalArgumentException("Unknown email template: " + name);
+        }
+
+        return new RenderedEmail(template.subject.render(model), template.body.render(model));
+    }
+
+    private static EmailTemplate parse(String filename, String source) {
+        int lineEnd = source.indexOf('\n');
+        if (!source.startsWith(SUBJECT_PREFIX) || lineEnd < 0) {
+            throw new IllegalStateException("Email template " + filename + " must start with a 'Subject:' line");
+        }
+        return new EmailTemplate(
+                CompiledTemplate.compile(source.substring(SUBJECT_PREFIX.length(), lineEnd).trim(), false),
+                CompiledTemplate.compile(source.substring(lineEnd + 1), true));
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class RenderedEmail {
+        private final String subject;
+        private final String html;
+    }
+
+    @AllArgsConstructor
+    private static class EmailTemplate {
+        private final CompiledTemplate subject;
+        private final CompiledTemplate body;
+    }
+
+    // literals[0] var[0] literals[1] var[1] ... literals[n]
+    private static class CompiledTemplate {
+        private final String[] literals;
+        private final String[] variables;
+        private final boolean escapeHtml;
+        private final int estimatedLength;
+
+        private CompiledTemplate(String[] literals, String[] variables, boolean escapeHtml) {
+            this.literals = literals;
+            this.variables = variables;
+            this.escapeHtml = escapeHtml;
+            int length = 0;
+            for (String literal : literals) {
+                length += literal.length();
+            }
+            this.estimatedLength = length;
+        }
+
+        static CompiledTemplate compile(String source, boolean escapeHtml) {
+            List<String> literals = new ArrayList<>();
+            List<String> variables = new ArrayList<>();
+            int position = 0;
+            int open;
+            while ((open = source.indexOf("{{", position)) >= 0) {
+                int close = source.indexOf("}}", open + 2);
+                if (close < 0) {
+                    break;
+                }
+                literals.add(source.substring(position, open));
+                variables.add(source.substring(open + 2, close).trim());
+                position = close + 2;
+            }
+            literals.add(source.substring(position));
+            return new CompiledTemplate(literals.toArray(new String[0]), variables.toArray(new String[0]), escapeHtml);
+        }
+
+        void render(Map<String, String> model, Writer out) throws IOException {
+            for (int i = 0; i < variables.length; i++) {
+                out.write(literals[i]);
+                String value = model.get(variables[i]);
+                if (value == null) {
+                    throw new IllegalArgumentException("Missing email template variable: " + variables[i]);
+                }
+                out.write(escapeHtml ? HtmlUtils.htmlEscape(value) : value);
+            }
+            out.write(literals[literals.length - 1]);
+        }
+
+        // Sized up front from the literal text, so rendering allocates one buffer
+        String render(Map<String, String> model) {
+            StringWriter out = new StringWriter(estimatedLength + 64);
+            try {
+                render(model, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toString();
+        }
+    }
+}
@@ -3,21 +3,28 @@ package com.yoga.attendance.service;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
-import com.google.firebase.messaging.*;
 import com.yoga.attendance.entity.DeviceToken;
 import com.yoga.attendance.repository.DeviceTokenRepository;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Service;
 import javax.annotation.PostConstruct;
 import java.io.FileInputStream;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Service
-@RequiredArgsConstructor
 public class FCMService {
     
+    private static final int MAX_ATTEMPTS = 4;
+    private static final long INITIAL_BACKOFF_MS = 500;
+    
     private final DeviceTokenRepository deviceTokenRepository;
+    private final PushTransport pushTransport;
+    private final TaskExecutor fcmExecutor;
     
     @Value("${fcm.credentials.path:}")
     private String credentialsPath;
@@ -25,6 +32,14 @@ public class FCMService {
     @Value("${fcm.enabled:false}")
     private boolean fcmEnabled;
     
+    public FCMService(DeviceTokenRepository deviceTokenRepository,
+                      PushTransport pushTransport,
+                      @Qualifier("fcmExecutor") TaskExecutor fcmExecutor) {
+        this.deviceTokenRepository = deviceTokenRepository;
+        this.pushTransport = pushTransport;
+        this.fcmExecutor = fcmExecutor;
+    }
+    
     @PostConstruct
     public void initialize() {
         if (!fcmEnabled || credentialsPath.isEmpty()) {
@@ -46,35 +61,85 @@ public class FCMService {
         }
     }
     
-    public void sendToUser(String username, String title, String body, String type) {
-        if (!fcmEnabled) return;
+    public CompletableFuture<Void> sendToUser(String username, String title, String body, String type) {
+        if (!fcmEnabled) return CompletableFuture.completedFuture(null);
         
-        List<DeviceToken> tokens = deviceTokenRepository.findByUsername(username);
-        tokens.forEach(deviceToken -> sendNotification(deviceToken.getToken(), title, body, type));
+        return sendToTokens(deviceTokenRepository.findByUsername(username), title, body, type);
     }
     
-    public void sendToAllUsers(String title, String body, String type) {
-        if (!fcmEnabled) return;
+    // Push to every device of a chunk of users with a single token lookup
+    public CompletableFuture<Void> sendToUsers(Collection<String> usernames, String title, String body, String type) {
+        if (!fcmEnabled || usernames.isEmpty()) return CompletableFuture.completedFuture(null);
         
-        List<DeviceToken> tokens = deviceTokenRepository.findAll();
-        tokens.forEach(deviceToken -> sendNotification(deviceToken.getToken(), title, body, type));
+        return sendToTokens(deviceTokenRepository.findByUsernameIn(usernames), title, body, type);
     }
     
-    private void sendNotification(String token, String title, String body, String type) {
-        try {
-            Message message = Message.builder()
-                    .setNotification(Notification.builder()
-                            .setTitle(title)
-                            .setBody(body)
-                            .build())
-                    .putData("type", type)
-                    .setToken(token)
-                    .build();
+    public CompletableFuture<Void> sendToAllUsers(String title, String body, String type) {
+        if (!fcmEnabled) return CompletableFuture.completedFuture(null);
+        
+        return sendToTokens(deviceTokenRepository.findAll(), title, body, type);
+    }
+    
+    // Split tokens into multicast batches of up to 500 and deliver them on the bounded FCM executor
+    private CompletableFuture<Void> sendToTokens(List<DeviceToken> deviceTokens, String title, String body, String type) {
+        List<String> tokens = deviceTokens.stream().map(DeviceToken::getToken).distinct().toList();
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        for (int from = 0; from < tokens.size(); from += PushTransport.MAX_TOKENS_PER_BATCH) {
+            List<String> batch = tokens.subList(from, Math.min(from + PushTransport.MAX_TOKENS_PER_BATCH, tokens.size()));
+            batches.add(CompletableFuture.runAsync(() -> sendBatch(batch, title, body, type), fcmExecutor));
+        }
+        return CompletableFuture.allOf(batches.toArray(new CompletableFuture[0]));
+    }
+    
+    // Send one batch, resending only transiently failed tokens with exponential backoff
+    private void sendBatch(List<String> tokens, String title, String body, String type) {
+        List<String> pending = tokens;
+        List<String> unregistered = new ArrayList<>();
+        int delivered = 0;
+        int failed = 0;
+        
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS && !pending.isEmpty(); attempt++) {
+            if (attempt > 1) {
+                try {
+                    Thread.sleep(INITIAL_BACKOFF_MS << (attempt - 2));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
             
-            String response = FirebaseMessaging.getInstance().send(message);
-            System.out.println("Successfully sent message: " + response);
-        } catch (Exception e) {
-            System.err.println("Failed to send FCM notification: " + e.getMessage());
+            List<PushTransport.Outcome> outcomes;
+            try {
+                outcomes = pushTransport.send(pending, title, body, type);
+            } catch (Exception e) {
+                System.err.println("Failed to send FCM batch: " + e.getMessage());
+                failed += pending.size();
+                pending = List.of();
+                break;
+            }
+            
+            List<String> retry = new ArrayList<>();
+            for (int i = 0; i < pending.size(); i++) {
+                switch (outcomes.get(i)) {
+                    case DELIVERED -> delivered++;
+                    case RETRY -> retry.add(pending.get(i));
+                    case UNREGISTERED -> unregistered.add(pending.get(i));
+                    default -> failed++;
+                }
+            }
+            pending = retry;
+        }
+        failed += pending.size();
+        
+        if (!unregistered.isEmpty()) {
+            try {
+                int pruned = deviceTokenRepository.deleteByTokenIn(unregistered);
+                System.out.println("Pruned " + pruned + " unregistered device tokens");
+            } catch (Exception e) {
+                System.err.println("Failed to prune device tokens: " + e.getMessage());
+            }
         }
+        System.out.println("FCM batch: " + delivered + " delivered, " + failed + " failed, "
+                + unregistered.size() + " unregistered");
     }
 }
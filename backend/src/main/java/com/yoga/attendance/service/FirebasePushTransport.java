@@ -0,0 +1,55 @@
+package com.yoga.attendance.service;
+
+import com.google.firebase.messaging.*;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+@Component
+public class FirebasePushTransport implements PushTransport {
+
+    @Override
+    public List<Outcome> send(List<String> tokens, String title, String body, String type) {
+        MulticastMessage message = MulticastMessage.builder()
+                .setNotification(Notification.builder()
+                        .setTitle(title)
+                        .setBody(body)
+                        .build())
+                .putData("type", type != null ? type : "general")
+                .addAllTokens(tokens)
+                .build();
+
+        try {
+            BatchResponse response = FirebaseMessaging.getInstance().sendEachForMulticast(message);
+            List<Outcome> outcomes = new ArrayList<>(tokens.size());
+            for (SendResponse sendResponse : response.getResponses()) {
+                outcomes.add(sendResponse.isSuccessful()
+                        ? Outcome.DELIVERED
+                        : classify(sendResponse.getException()));
+            }
+            return outcomes;
+        } catch (FirebaseMessagingException e) {
+            // The whole batch failed (auth, network, quota): same outcome for every token
+            return Collections.nCopies(tokens.size(), classify(e));
+        }
+    }
+
+    private Outcome classify(FirebaseMessagingException e) {
+        if (e == null || e.getMessagingErrorCode() == null) {
+            return Outcome.RETRY;
+        }
+        switch (e.getMessagingErrorCode()) {
+            case UNREGISTERED:
+            case SENDER_ID_MISMATCH:
+                return Outcome.UNREGISTERED;
+            case UNAVAILABLE:
+            case INTERNAL:
+            case QUOTA_EXCEEDED:
+                return Outcome.RETRY;
+            default:
+                return Outcome.FAILED;
+        }
+    }
+}
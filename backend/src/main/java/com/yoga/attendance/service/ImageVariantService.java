@@ -0,0 +1,242 @@
+package com.yoga.attendance.service;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+// Resized JPEG renditions of uploaded photos, generated on the imageExecutor after the upload request returns.
+// Variants are stored through the BlobStore like the original and keyed by variant name in the result; each
+// carries one reference that the caller must release if it ends up not recording the URL.
+@Service
+public class ImageVariantService {
+
+    public static final String THUMBNAIL = "thumbnail";
+    public static final String MEDIUM = "medium";
+
+    // Longest side in pixels per variant
+    private static final Map<String, Integer> VARIANTS = Map.of(THUMBNAIL, 256, MEDIUM, 1080);
+    private static final int LARGEST_VARIANT = 1080;
+    private static final float JPEG_QUALITY = 0.8f;
+
+    private final TaskExecutor imageExecutor;
+    private final BlobStore blobStore;
+
+    public ImageVariantService(@Qualifier("imageExecutor") TaskExecutor imageExecutor, BlobStore blobStore) {
+        this.imageExecutor = imageExecutor;
+        this.blobStore = blobStore;
+    }
+
+    // Completes with variant name -> URL; empty when the format cannot be decoded (e.g. WebP) or the pool is full
+    public CompletableFuture<Map<String, String>> generateVariants(String originalUrl) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return writeVariants(originalUrl);
+                } catch (Exception e) {
+                    System.err.println("Image variant generation failed for " + originalUrl + ": " + e.getMessage());
+                    return Map.<String, String>of();
+                }
+            }, imageExecutor);
+        } catch (RejectedExecutionException e) {
+            System.err.println("Image pool busy, serving original only: " + originalUrl);
+            return CompletableFuture.completedFuture(Map.of());
+        }
+    }
+
+    private Map<String, String> writeVariants(String originalUrl) throws IOException {
+        Path original = blobStore.resolve(originalUrl).orElse(null);
+        if (original == null) {
+            return Map.of();
+        }
+        BufferedImage source = decode(original);
+        if (source == null) {
+            return Map.of();
+        }
+        source = applyOrientation(source, readExifOrientation(original));
+
+        Map<String, String> variants = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<String, Integer> variant : VARIANTS.entrySet()) {
+                Path temp = blobStore.createTempFile();
+                try {
+                    writeJpeg(resize(source, variant.getValue()), temp);
+                } catch (IOException e) {
+                    Files.deleteIfExists(temp);
+                    throw e;
+                }
+                variants.put(variant.getKey(), blobStore.put(temp, ".jpg"));
+            }
+        } catch (IOException e) {
+            // Give back the variants already stored so a half-finished set does not leak references
+            variants.values().forEach(blobStore::release);
+            throw e;
+        }
+        return variants;
+    }
+
+    // Decodes with source subsampling so a 12MP photo never has to be held at full resolution
+    private BufferedImage decode(Path file) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, longest / LARGEST_VARIANT);
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage resize(BufferedImage source, int maxSide) {
+        double scale = Math.min(1.0, (double) maxSide / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        // JPEG has no alpha; flatten transparent PNG/GIF areas onto white
+        BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = resized.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return resized;
+    }
+
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(target.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    // Phone cameras store rotation in the EXIF Orientation tag; the variants drop EXIF, so bake it into the pixels
+    private BufferedImage applyOrientation(BufferedImage image, int orientation) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        AffineTransform transform = new AffineTransform();
+        switch (orientation) {
+            case 2 -> { transform.scale(-1, 1); transform.translate(-w, 0); }
+            case 3 -> { transform.translate(w, h); transform.rotate(Math.PI); }
+            case 4 -> { transform.scale(1, -1); transform.translate(0, -h); }
+            case 5 -> { transform.rotate(-Math.PI / 2); transform.scale(-1, 1); }
+            case 6 -> { transform.translate(h, 0); transform.rotate(Math.PI / 2); }
+            case 7 -> { transform.translate(h, w); transform.rotate(Math.PI / 2); transform.scale(-1, 1); }
+            case 8 -> { transform.translate(0, w); transform.rotate(3 * Math.PI / 2); }
+            default -> { return image; }
+        }
+        boolean swap = orientation >= 5;
+        BufferedImage rotated = new BufferedImage(swap ? h : w, swap ? w : h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rotated.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, rotated.getWidth(), rotated.getHeight());
+            g.drawImage(image, transform, null);
+        } finally {
+            g.dispose();
+        }
+        return rotated;
+    }
+
+    // Minimal JPEG APP1/EXIF walk for IFD0 tag 0x0112; returns 1 (upright) when absent or unreadable
+    private int readExifOrientation(Path file) {
+        try (InputStream raw = Files.newInputStream(file); DataInputStream in = new DataInputStream(raw)) {
+            if (in.readUnsignedShort() != 0xFFD8) {
+                return 1;
+            }
+            while (true) {
+                int marker = in.readUnsignedShort();
+                int length = in.readUnsignedShort() - 2;
+                if (marker == 0xFFE1) {
+                    byte[] segment = in.readNBytes(length);
+                    return orientationFromExif(segment);
+                }
+                if (marker == 0xFFDA || (marker & 0xFF00) != 0xFF00) {
+                    return 1;
+                }
+                in.skipNBytes(length);
+            }
+        } catch (Exception e) {
+            return 1;
+        }
+    }
+
+    private int orientationFromExif(byte[] segment) {
+        // "Exif\0\0" header followed by a TIFF header
+        if (segment.length < 14 || segment[0] != 'E' || segment[1] != 'x' || segment[2] != 'i' || segment[3] != 'f') {
+            return 1;
+        }
+        int tiff = 6;
+        boolean littleEndian = segment[tiff] == 'I';
+        int ifd = tiff + readInt(segment, tiff + 4, littleEndian);
+        int entries = readShort(segment, ifd, littleEndian);
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > segment.length) {
+                break;
+            }
+            if (readShort(segment, entry, littleEndian) == 0x0112) {
+                int value = readShort(segment, entry + 8, littleEndian);
+                return value >= 1 && value <= 8 ? value : 1;
+            }
+        }
+        return 1;
+    }
+
+    private int readShort(byte[] data, int offset, boolean littleEndian) {
+        int b0 = data[offset] & 0xFF;
+        int b1 = data[offset + 1] & 0xFF;
+        return littleEndian ? (b1 << 8) | b0 : (b0 << 8) | b1;
+    }
+
+    private int readInt(byte[] data, int offset, boolean littleEndian) {
+        int high = readShort(data, littleEndian ? offset + 2 : offset, littleEndian);
+        int low = readShort(data, littleEndian ? offset : offset + 2, littleEndian);
+        return (high << 16) | low;
+    }
+}
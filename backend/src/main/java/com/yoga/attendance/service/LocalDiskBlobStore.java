@@ -0,0 +1,216 @@
+package com.yoga.attendance.service;
+
+import com.yoga.attendance.entity.UploadBlob;
+import com.yoga.attendance.repository.UploadBlobRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// BlobStore on the local uploads/ directory, served under /uploads/** by UploadFileController.
+// Files live at uploads/<h0h1>/<h2h3>/<sha256><ext> so no directory grows past a few hundred entries;
+// reference counts live in upload_blobs. Files from before the store (flat uploads/<name>) still resolve
+// and are deleted outright on release, since each had exactly one owner.
+// Per-hash locks serialize put/release of the same content; like the directory itself, they assume one instance.
+// Reference counts are changed in their own transaction: the file moves and deletes cannot roll back with the
+// caller's, and release is called from afterCommit hooks where the caller's transaction is already finished.
+@Component
+public class LocalDiskBlobStore implements BlobStore {
+
+    private static final String URL_PREFIX = "/uploads/";
+    private static final Pattern BLOB_PATH = Pattern.compile("([0-9a-f]{2})/([0-9a-f]{2})/([0-9a-f]{64})(\\.[a-z0-9]{1,9})");
+    private static final Pattern LEGACY_PATH = Pattern.compile("[^./\\\\][^/\\\\]*");
+    private static final Pattern EXTENSION = Pattern.compile("\\.[a-z0-9]{1,9}");
+    private static final int LOCK_STRIPES = 64;
+
+    private final UploadBlobRepository uploadBlobRepository;
+    private final TransactionTemplate refCountTransaction;
+    private final Path root;
+    private final Path tempDir;
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    public LocalDiskBlobStore(UploadBlobRepository uploadBlobRepository,
+                              PlatformTransactionManager transactionManager) throws IOException {
+        this.uploadBlobRepository = uploadBlobRepository;
+        this.refCountTransaction = new TransactionTemplate(transactionManager);
+        this.refCountTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.root = Paths.get("uploads").toAbsolutePath().normalize();
+        this.tempDir = root.resolve(".tmp");
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        Files.createDirectories(tempDir);
+        clearTempDir();
+    }
+
+    @Override
+    public Path createTempFile() throws IOException {
+        return Files.createTempFile(tempDir, "upload-", ".part");
+    }
+
+    @Override
+    public String put(Path file, String extension) throws IOException {
+        try {
+            String hash = sha256(file);
+            ReentrantLock lock = lockFor(hash);
+            lock.lock();
+            try {
+                Optional<UploadBlob> existing = refCountTransaction.execute(status -> uploadBlobRepository.findByHash(hash));
+                if (existing.isPresent()) {
+                    String storedExtension = existing.get().getExtension();
+                    Path target = pathFor(hash, storedExtension);
+                    // Re-materialize the file if it went missing on disk; otherwise the copy is redundant
+                    if (!Files.exists(target)) {
+                        moveInto(file, target);
+                    }
+                    refCountTransaction.executeWithoutResult(status -> uploadBlobRepository.incrementRefCount(hash));
+                    return urlFor(hash, storedExtension);
+                }
+
+                String cleanExtension = normalizeExtension(extension);
+                Path target = pathFor(hash, cleanExtension);
+                moveInto(file, target);
+
+                UploadBlob blob = new UploadBlob();
+                blob.setHash(hash);
+                blob.setExtension(cleanExtension);
+                blob.setSizeBytes(Files.size(target));
+                refCountTransaction.executeWithoutResult(status -> uploadBlobRepository.save(blob));
+                return urlFor(hash, cleanExtension);
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Override
+    public long release(String url) {
+        if (url == null || !url.startsWith(URL_PREFIX)) {
+            return 0;
+        }
+        String relative = url.substring(URL_PREFIX.length());
+        try {
+            Matcher blob = BLOB_PATH.matcher(relative);
+            if (!blob.matches()) {
+                return LEGACY_PATH.matcher(relative).matches() ? delete(root.resolve(relative)) : 0;
+            }
+
+            String hash = blob.group(3);
+            ReentrantLock lock = lockFor(hash);
+            lock.lock();
+            try {
+                Boolean unreferenced = refCountTransaction.execute(status ->
+                        uploadBlobRepository.decrementRefCount(hash) > 0
+                                && uploadBlobRepository.deleteIfUnreferenced(hash) > 0);
+                if (!Boolean.TRUE.equals(unreferenced)) {
+                    return 0;
+                }
+                return delete(root.resolve(relative));
+            } finally {
+                lock.unlock();
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to delete upload " + url + ": " + e.getMessage());
+            return 0;
+        }
+    }
+
+    @Override
+    public Optional<Path> resolve(String url) {
+        if (url == null || !url.startsWith(URL_PREFIX)) {
+            return Optional.empty();
+        }
+        String relative = url.substring(URL_PREFIX.length());
+        if (!BLOB_PATH.matcher(relative).matches() && !LEGACY_PATH.matcher(relative).matches()) {
+            return Optional.empty();
+        }
+        Path path = root.resolve(relative);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    private Path pathFor(String hash, String extension) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash + extension);
+    }
+
+    private String urlFor(String hash, String extension) {
+        return URL_PREFIX + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + extension;
+    }
+
+    private ReentrantLock lockFor(String hash) {
+        return locks[Integer.parseInt(hash.substring(0, 2), 16) % LOCK_STRIPES];
+    }
+
+    // Temp files share the volume with the store, so this is a rename rather than a copy
+    private void moveInto(Path file, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private long delete(Path path) throws IOException {
+        long freed = deleteFile(path);
+        for (String suffix : PRECOMPRESSED_SUFFIXES) {
+            freed += deleteFile(path.resolveSibling(path.getFileName() + suffix));
+        }
+        return freed;
+    }
+
+    private long deleteFile(Path path) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return 0;
+        }
+        long size = Files.size(path);
+        return Files.deleteIfExists(path) ? size : 0;
+    }
+
+    private String normalizeExtension(String extension) {
+        String lower = extension == null ? "" : extension.toLowerCase(Locale.ROOT);
+        if (lower.equals(".jpeg")) {
+            return ".jpg";
+        }
+        return EXTENSION.matcher(lower).matches() ? lower : ".bin";
+    }
+
+    private String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    // Anything left in the temp directory at startup belongs to a request that died mid-upload
+    private void clearTempDir() throws IOException {
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(tempDir)) {
+            for (Path leftover : leftovers) {
+                Files.deleteIfExists(leftover);
+            }
+        }
+    }
+}
@@ -1,13 +1,26 @@
 package com.yoga.attendance.service;
 
+import com.yoga.attendance.entity.BroadcastJob;
 import com.yoga.attendance.entity.Notification;
 import com.yoga.attendance.entity.DeviceToken;
 import com.yoga.attendance.repository.NotificationRepository;
 import com.yoga.attendance.repository.DeviceTokenRepository;
 import com.yoga.attendance.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 @RequiredArgsConstructor
@@ -17,6 +30,23 @@ public class NotificationService {
     private final DeviceTokenRepository deviceTokenRepository;
     private final UserRepository userRepository;
     private final FCMService fcmService;
+    private final BroadcastService broadcastService;
+    private final ContentVersionService contentVersionService;
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int DELETE_CHUNK_SIZE = 1000;
+
+    private static final Comparator<Notification> NEWEST_FIRST = Comparator
+            .comparing(Notification::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Notification::getId, Comparator.reverseOrder());
+
+    // Unread badge counts (personal + broadcast) per user. Loaded from MySQL on a miss and then adjusted in
+    // place on every write, so badge polling is served from memory. The TTL bounds drift between instances.
+    // Async so a miss counts on the caller's thread rather than inside Caffeine's compute lock (see getUnreadCount).
+    private final AsyncCache<String, Long> unreadCounts = Caffeine.newBuilder()
+            .maximumSize(50_000)
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .buildAsync();
 
     // Send notification to specific user
     public void sendToUser(String username, String title, String message, String type) {
@@ -34,6 +64,8 @@ public class NotificationService {
             notification.setType(type != null ? type : "INFO");
             notification.setRead(false);
             notificationRepository.save(notification);
+            adjustUnreadCount(username, 1);
+            contentVersionService.bump(ContentVersionService.notifications(username));
             System.out.println("✓ Notification saved for user: " + username);
 
             // Send push notification
@@ -44,72 +76,160 @@ public class NotificationService {
         }
     }
 
-    // Send notification to all users
-    public void sendToAllUsers(String title, String message, String type) {
-        System.out.println("=== sendToAllUsers called ===");
-        System.out.println("Title: " + title);
-        System.out.println("Message: " + message);
-        System.out.println("Type: " + type);
+    // Send notification to all users (queued; rows and pushes are written in chunks by BroadcastService)
+    public BroadcastJob sendToAllUsers(String title, String message, String type) {
+        BroadcastJob job = broadcastService.enqueue(title, message, type);
+        // Every user's count just went up by one; reload lazily instead of touching each entry
+        unreadCounts.synchronous().invalidateAll();
+        contentVersionService.bump(ContentVersionService.NOTIFICATIONS);
+        return job;
+    }
 
-        List<com.yoga.attendance.entity.User> allUsers = userRepository.findAll();
-        System.out.println("Total users in database: " + allUsers.size());
+    // Send notification to every admin: one saveAll, so the rows go out as a single batched multi-row insert
+    public void sendToAdmin(String title, String message, String type) {
+        try {
+            List<String> admins = userRepository.findAdminUsernames();
+            if (admins.isEmpty()) {
+                System.out.println("No admin users to notify");
+                return;
+            }
 
-        allUsers.forEach(user -> {
-            System.out.println("Checking user: " + user.getUsername() + ", Role: " + user.getRole());
-            // Case-insensitive check to handle ADMIN, Admin, admin, etc.
-            String roleStr = user.getRole() != null ? user.getRole().name() : null;
-            if (roleStr == null || !"ADMIN".equalsIgnoreCase(roleStr)) {
-                System.out.println("✓ Sending notification to user: " + user.getUsername());
-                sendToUser(user.getUsername(), title, message, type);
-            } else {
-                System.out.println("✗ Skipping admin user: " + user.getUsername());
+            List<Notification> notifications = new ArrayList<>(admins.size());
+            for (String admin : admins) {
+                Notification notification = new Notification();
+                notification.setUsername(admin);
+                notification.setTitle(title != null ? title : "Notification");
+                notification.setMessage(message != null ? message : "");
+                notification.setType(type != null ? type : "INFO");
+                notification.setRead(false);
+                notifications.add(notification);
             }
-        });
-        System.out.println("=== sendToAllUsers completed ===");
-    }
+            notificationRepository.saveAll(notifications);
 
-    // Send notification to admin
-    public void sendToAdmin(String title, String message, String type) {
-        System.out.println("=== sendToAdmin called ===");
-        System.out.println("Title: " + title);
-        System.out.println("Message: " + message);
-        System.out.println("Type: " + type);
-
-        List<com.yoga.attendance.entity.User> allUsers = userRepository.findAll();
-        System.out.println("Total users in database: " + allUsers.size());
-
-        allUsers.forEach(user -> {
-            System.out.println("Checking user: " + user.getUsername() + ", Role: " + user.getRole());
-            // Case-insensitive check to handle ADMIN, Admin, admin, etc.
-            String roleStr = user.getRole() != null ? user.getRole().name() : null;
-            if (roleStr != null && "ADMIN".equalsIgnoreCase(roleStr)) {
-                System.out.println("✓ Sending notification to admin: " + user.getUsername());
-                sendToUser(user.getUsername(), title, message, type);
+            for (String admin : admins) {
+                adjustUnreadCount(admin, 1);
+                contentVersionService.bump(ContentVersionService.notifications(admin));
+                sendPushNotification(admin, title, message);
             }
-        });
-        System.out.println("=== sendToAdmin completed ===");
+            System.out.println("✓ Notification saved for " + admins.size() + " admin(s)");
+        } catch (Exception e) {
+            System.err.println("Error sending notification to admins: " + e.getMessage());
+        }
     }
 
-    // Get user notifications
+    // Get user notifications: personal rows merged with broadcasts at read time
     public List<Notification> getUserNotifications(String username) {
-        return notificationRepository.findByUsernameOrderByCreatedAtDesc(username);
+        List<Notification> inbox = new ArrayList<>(notificationRepository.findByUsernameOrderByCreatedAtDesc(username));
+        List<Notification> broadcasts = broadcastService.getInboxItems(username);
+        if (!broadcasts.isEmpty()) {
+            inbox.addAll(broadcasts);
+            inbox.sort(NEWEST_FIRST);
+        }
+        return inbox;
+    }
+
+    // Keyset page of the merged inbox ordered by (createdAt DESC, id DESC); broadcast items carry negative ids
+    public Map<String, Object> getInboxPage(String username, LocalDateTime cursorDate, Long cursorId, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        boolean firstPage = cursorDate == null || cursorId == null;
+
+        // Fetch one extra row from each source; the merged list then tells whether anything follows the page
+        List<Notification> page = new ArrayList<>(firstPage
+                ? notificationRepository.findByUsernameOrderByCreatedAtDescIdDesc(username, PageRequest.of(0, pageSize + 1))
+                : notificationRepository.findPageBefore(username, cursorDate, cursorId, PageRequest.of(0, pageSize + 1)));
+        page.addAll(broadcastService.getInboxPage(username, cursorDate, cursorId, pageSize + 1));
+        page.sort(NEWEST_FIRST);
+
+        boolean hasMore = page.size() > pageSize;
+        if (hasMore) {
+            page = page.subList(0, pageSize);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("items", page);
+        response.put("hasMore", hasMore);
+        if (hasMore) {
+            Notification last = page.get(page.size() - 1);
+            response.put("nextCursorDate", last.getCreatedAt());
+            response.put("nextCursorId", last.getId());
+        }
+        return response;
     }
 
     // Get unread count
+    // One count query per user per miss: the first caller installs a future and queries, others wait on it.
+    // Querying inside Caffeine's compute would hold a monitor across JDBC and pin a virtual thread's carrier.
     public long getUnreadCount(String username) {
-        return notificationRepository.countByUsernameAndReadFalse(username);
+        Long cached = unreadCounts.synchronous().getIfPresent(username);
+        if (cached != null) {
+            return cached;
+        }
+        CompletableFuture<Long> loading = new CompletableFuture<>();
+        CompletableFuture<Long> inFlight = unreadCounts.asMap().putIfAbsent(username, loading);
+        if (inFlight != null) {
+            try {
+                return inFlight.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        try {
+            long count = loadUnreadCount(username);
+            loading.complete(count);
+            return count;
+        } catch (RuntimeException e) {
+            loading.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private long loadUnreadCount(String username) {
+        return notificationRepository.countByUsernameAndReadFalse(username) + broadcastService.countUnread(username);
+    }
+
+    // Only touches users whose count is already cached; others are loaded fresh on their next poll.
+    // A count still loading may have been read before this change, so it is dropped rather than adjusted.
+    private void adjustUnreadCount(String username, long delta) {
+        unreadCounts.asMap().computeIfPresent(username, (user, count) ->
+                count.isDone() && !count.isCompletedExceptionally()
+                        ? CompletableFuture.completedFuture(Math.max(0, count.join() + delta))
+                        : null);
+    }
+
+    // Mark as read (negative ids are broadcasts, see BroadcastService.getInboxItems)
+    public void markAsRead(String username, Long notificationId) {
+        if (notificationId != null && notificationId < 0) {
+            try {
+                if (broadcastService.markRead(username, -notificationId)) {
+                    adjustUnreadCount(username, -1);
+                    contentVersionService.bump(ContentVersionService.notifications(username));
+                }
+                return;
+            } catch (Exception e) {
+                System.err.println("Error marking broadcast as read: " + e.getMessage());
+                throw new RuntimeException("Failed to mark notification as read", e);
+            }
+        }
+        markPersonalAsRead(notificationId, username);
     }
 
-    // Mark as read
     public void markAsRead(Long notificationId) {
+        markPersonalAsRead(notificationId, null);
+    }
+
+    // owner null skips the ownership check; another user's notification is reported as not found
+    private void markPersonalAsRead(Long notificationId, String owner) {
         try {
             System.out.println("Attempting to mark notification " + notificationId + " as read");
             Notification notification = notificationRepository.findById(notificationId)
+                    .filter(found -> owner == null || owner.equals(found.getUsername()))
                     .orElseThrow(() -> new RuntimeException("Notification not found with id: " + notificationId));
 
             if (!notification.isRead()) {
                 notification.setRead(true);
                 notificationRepository.save(notification);
+                adjustUnreadCount(notification.getUsername(), -1);
+                contentVersionService.bump(ContentVersionService.notifications(notification.getUsername()));
                 System.out.println("Successfully marked notification " + notificationId + " as read");
             } else {
                 System.out.println("Notification " + notificationId + " was already marked as read");
@@ -120,23 +240,17 @@ public class NotificationService {
         }
     }
 
-    // Mark all as read
-    public void markAllAsRead(String username) {
+    // Mark all as read; returns the number of personal notifications updated
+    public int markAllAsRead(String username) {
         try {
             System.out.println("Marking all notifications as read for user: " + username);
-            List<Notification> notifications = notificationRepository
-                    .findByUsernameAndReadFalseOrderByCreatedAtDesc(username);
-            
-            if (notifications.isEmpty()) {
-                System.out.println("No unread notifications found for user: " + username);
-                return;
-            }
-            
-            notifications.forEach(notification -> {
-                notification.setRead(true);
-                notificationRepository.save(notification);
-            });
-            System.out.println("Successfully marked " + notifications.size() + " notifications as read");
+            broadcastService.markAllRead(username);
+            int updated = notificationRepository.markAllReadByUsername(username);
+            // Dropped rather than set to 0: a notification sent around the UPDATE may or may not be in it
+            unreadCounts.synchronous().invalidate(username);
+            contentVersionService.bump(ContentVersionService.notifications(username));
+            System.out.println("Successfully marked " + updated + " notifications as read");
+            return updated;
         } catch (Exception e) {
             System.err.println("Error marking all notifications as read: " + e.getMessage());
             throw new RuntimeException("Failed to mark all notifications as read", e);
@@ -195,24 +309,28 @@ public class NotificationService {
     }
 
     // Convenience method: Notify all users
-    public void notifyAllUsers(String title, String message, String type) {
-        sendToAllUsers(title, message, type);
+    public BroadcastJob notifyAllUsers(String title, String message, String type) {
+        return sendToAllUsers(title, message, type);
     }
 
-    // Delete old attendance reminder notifications
-    public void deleteOldAttendanceReminders() {
+    // Delete attendance reminders sent before today in bounded chunks; returns the number of rows deleted
+    public int deleteOldAttendanceReminders() {
+        LocalDateTime before = LocalDate.now().atStartOfDay();
+        int deleted = 0;
         try {
-            List<Notification> allNotifications = notificationRepository.findAll();
-            for (Notification notification : allNotifications) {
-                if ("REMINDER".equals(notification.getType()) && 
-                    (notification.getTitle().contains("Attendance Reminder") || 
-                     notification.getTitle().contains("Mark Your Attendance"))) {
-                    notificationRepository.delete(notification);
-                }
-            }
-            System.out.println("Old attendance reminders deleted");
+            int chunk;
+            do {
+                chunk = notificationRepository.deleteAttendanceRemindersBefore(before, DELETE_CHUNK_SIZE);
+                deleted += chunk;
+            } while (chunk == DELETE_CHUNK_SIZE);
+            System.out.println("Old attendance reminders deleted: " + deleted);
         } catch (Exception e) {
-            System.err.println("Error deleting old attendance reminders: " + e.getMessage());
+            System.err.println("Error deleting old attendance reminders after " + deleted + " rows: " + e.getMessage());
+        }
+        if (deleted > 0) {
+            unreadCounts.synchronous().invalidateAll();
+            contentVersionService.bump(ContentVersionService.NOTIFICATIONS);
         }
+        return deleted;
     }
 }
@@ -0,0 +1,109 @@
+package com.yoga.attendance.service;
+
+import com.yoga.attendance.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+public class PasswordHashingService {
+
+    // Upper bound a request thread waits for its hash, queueing included
+    private static final long WAIT_SECONDS = 10;
+
+    private final PasswordEncoder passwordEncoder;
+    private final UserRepository userRepository;
+    private final ThreadPoolTaskExecutor executor;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder rehashed = new LongAdder();
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  UserRepository userRepository,
+                                  @Qualifier("passwordHashExecutor") ThreadPoolTaskExecutor executor) {
+        this.passwordEncoder = passwordEncoder;
+        this.userRepository = userRepository;
+        this.executor = executor;
+    }
+
+    public String encode(String rawPassword) {
+        return run(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    // Verifies the password and, when the stored hash uses a weaker cost than configured, rehashes it in the background
+    public boolean matches(String username, String rawPassword, String storedHash) {
+        boolean matches = run(() -> passwordEncoder.matches(rawPassword, storedHash));
+        if (matches && passwordEncoder.upgradeEncoding(storedHash)) {
+            scheduleRehash(username, rawPassword, storedHash);
+        }
+        return matches;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("poolSize", executor.getPoolSize());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queueDepth", executor.getThreadPoolExecutor().getQueue().size());
+        stats.put("queueCapacity", executor.getQueueCapacity());
+        stats.put("completed", executor.getThreadPoolExecutor().getCompletedTaskCount());
+        stats.put("rejected", rejected.sum());
+        stats.put("timedOut", timedOut.sum());
+        stats.put("rehashed", rehashed.sum());
+        return stats;
+    }
+
+    // Best effort: if the pool is saturated the rehash is simply retried on the next login
+    private void scheduleRehash(String username, String rawPassword, String storedHash) {
+        try {
+            executor.execute(() -> {
+                if (userRepository.replacePasswordHash(username, storedHash, passwordEncoder.encode(rawPassword)) > 0) {
+                    rehashed.increment();
+                }
+            });
+        } catch (TaskRejectedException e) {
+            System.out.println("Password hash pool busy, deferring rehash for " + username);
+        }
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (TaskRejectedException e) {
+            rejected.increment();
+            throw new BusyException();
+        }
+
+        try {
+            return future.get(WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timedOut.increment();
+            throw new BusyException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusyException();
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Password hashing failed", e.getCause());
+        }
+    }
+
+    // Thrown when the hashing pool is saturated; callers answer 503 instead of tying up a request thread
+    public static class BusyException extends RuntimeException {
+        public BusyException() {
+            super("Server is busy, please try again shortly");
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.yoga.attendance.service;
+
+import java.util.List;
+
+// Delivers one multicast batch to a push provider. FCMService owns batching, retries and token pruning,
+// so a fake transport (or one pointed at a local stub server) can stand in for Firebase.
+public interface PushTransport {
+
+    int MAX_TOKENS_PER_BATCH = 500;
+
+    enum Outcome { DELIVERED, RETRY, UNREGISTERED, FAILED }
+
+    // Returns one outcome per token, in the same order as the input list
+    List<Outcome> send(List<String> tokens, String title, String body, String type);
+}
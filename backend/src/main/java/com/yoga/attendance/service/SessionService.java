@@ -43,12 +43,19 @@ public class SessionService {
         }).toList();
     }
     
+    public Optional<String> getSessionOwner(Long sessionId) {
+        return sessionRepository.findById(sessionId).map(UserSession::getUsername);
+    }
+    
+    // Returns the session that was logged out, if it exists
     @Transactional
-    public void logoutSession(Long sessionId) {
-        sessionRepository.findById(sessionId).ifPresent(session -> {
-            session.setActive(false);
-            sessionRepository.save(session);
+    public Optional<UserSession> logoutSession(Long sessionId) {
+        Optional<UserSession> session = sessionRepository.findById(sessionId);
+        session.ifPresent(s -> {
+            s.setActive(false);
+            sessionRepository.save(s);
         });
+        return session;
     }
     
     @Transactional
@@ -0,0 +1,99 @@
+package com.yoga.attendance.service;
+
+import com.yoga.attendance.repository.WorkshopRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Everything the student home screen loads on launch, in one request: level content, today's progress,
+// routines, habits, upcoming workshops for the level and the unread count, plus the app-open reminder check.
+// Independent parts run concurrently on todayExecutor; a part that fails or misses the deadline comes back
+// as null instead of failing the whole payload.
+@Service
+public class TodayService {
+
+    private static final long DEADLINE_MILLIS = 5000;
+
+    private final UserProgressService userProgressService;
+    private final CatalogService catalogService;
+    private final WorkshopRepository workshopRepository;
+    private final NotificationService notificationService;
+    private final AttendanceReminderService attendanceReminderService;
+    private final TaskExecutor todayExecutor;
+
+    public TodayService(UserProgressService userProgressService,
+                        CatalogService catalogService,
+                        WorkshopRepository workshopRepository,
+                        NotificationService notificationService,
+                        AttendanceReminderService attendanceReminderService,
+                        @Qualifier("todayExecutor") TaskExecutor todayExecutor) {
+        this.userProgressService = userProgressService;
+        this.catalogService = catalogService;
+        this.workshopRepository = workshopRepository;
+        this.notificationService = notificationService;
+        this.attendanceReminderService = attendanceReminderService;
+        this.todayExecutor = todayExecutor;
+    }
+
+    public Map<String, Object> getToday(String username) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DEADLINE_MILLIS);
+
+        CompletableFuture<Map<String, Object>> content = async("content", () -> userProgressService.getLevelContent(username));
+        // Workshops are filtered by level, so they chain off the content part
+        CompletableFuture<Object> workshops = content.thenCompose(levelContent -> levelContent == null
+                ? CompletableFuture.<Object>completedFuture(null)
+                : this.<Object>async("workshops", () -> workshopRepository
+                        .findByLevelAndTypeAndActiveTrueAndEndTimeAfterOrderByStartTimeAsc(
+                                (Integer) levelContent.get("level"), "upcoming", LocalDateTime.now())));
+        CompletableFuture<Object> progress = async("progress", () -> userProgressService.getOrCreateProgress(username));
+        CompletableFuture<Object> routines = async("routines", catalogService::getActiveRoutines);
+        CompletableFuture<Object> habits = async("habits", catalogService::getActiveHabits);
+        // The app-open reminder may add a notification, so the unread count is read after it
+        CompletableFuture<Object> unreadCount = async("unreadCount", () -> {
+            attendanceReminderService.checkAndSendReminderOnAppOpen(username);
+            return notificationService.getUnreadCount(username);
+        });
+
+        Map<String, Object> today = new LinkedHashMap<>();
+        today.put("date", LocalDate.now());
+        today.put("content", await("content", content, deadline));
+        today.put("progress", await("progress", progress, deadline));
+        today.put("routines", await("routines", routines, deadline));
+        today.put("habits", await("habits", habits, deadline));
+        today.put("workshops", await("workshops", workshops, deadline));
+        today.put("unreadCount", await("unreadCount", unreadCount, deadline));
+        return today;
+    }
+
+    private <T> CompletableFuture<T> async(String part, Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(supplier, todayExecutor)
+                .exceptionally(e -> {
+                    System.err.println("Today part '" + part + "' failed: " + e.getMessage());
+                    return null;
+                });
+    }
+
+    private <T> T await(String part, CompletableFuture<T> future, long deadlineNanos) {
+        try {
+            return future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            System.err.println("Today part '" + part + "' missed the deadline");
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.yoga.attendance.service;
+
+import com.yoga.attendance.entity.UserLevel;
+import com.yoga.attendance.entity.UserProgress;
+import com.yoga.attendance.entity.Video;
+import com.yoga.attendance.repository.UserLevelRepository;
+import com.yoga.attendance.repository.UserProgressRepository;
+import com.yoga.attendance.repository.VideoRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// A student's level and today's progress row, created on first access
+@Service
+@RequiredArgsConstructor
+public class UserProgressService {
+
+    private final UserLevelRepository userLevelRepository;
+    private final UserProgressRepository userProgressRepository;
+    private final VideoRepository videoRepository;
+
+    public UserLevel getOrCreateLevel(String username) {
+        return userLevelRepository.findByUsername(username)
+                .orElseGet(() -> {
+                    UserLevel newLevel = new UserLevel();
+                    newLevel.setUsername(username);
+                    newLevel.setLevel(1);
+                    newLevel.setCurrentVideoIndex(0);
+                    return userLevelRepository.save(newLevel);
+                });
+    }
+
+    // Level, position and current video for the student's level
+    public Map<String, Object> getLevelContent(String username) {
+        UserLevel userLevel = getOrCreateLevel(username);
+
+        List<Video> videos = videoRepository.findByLevelAndActiveTrueOrderByIdAsc(userLevel.getLevel());
+        Video currentVideo = videos.isEmpty() ? null
+                : videos.get(Math.min(userLevel.getCurrentVideoIndex(), videos.size() - 1));
+
+        Map<String, Object> content = new HashMap<>();
+        content.put("level", userLevel.getLevel());
+        content.put("currentVideoIndex", userLevel.getCurrentVideoIndex());
+        content.put("currentVideo", currentVideo);
+        content.put("totalVideos", videos.size());
+        return content;
+    }
+
+    public UserProgress getOrCreateProgress(String username) {
+        return userProgressRepository.findByUsernameAndDate(username, LocalDate.now())
+                .orElseGet(() -> {
+                    UserProgress progress = new UserProgress();
+                    progress.setUsername(username);
+                    progress.setDate(LocalDate.now());
+                    progress.setVideoCompleted(false);
+                    progress.setRoutineCompleted(false);
+                    progress.setHabitsCompleted(false);
+                    progress.setQaCompleted(false);
+                    progress.setAllTasksCompleted(false);
+                    return userProgressRepository.save(progress);
+                });
+    }
+}
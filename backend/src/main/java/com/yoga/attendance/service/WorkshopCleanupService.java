@@ -14,10 +14,14 @@ public class WorkshopCleanupService {
     @Autowired
     private WorkshopRepository workshopRepository;
     
+    @Autowired
+    private ContentVersionService contentVersionService;
+    
     @Scheduled(fixedRate = 3600000) // Run every hour
     @Transactional
     public void deleteExpiredWorkshops() {
         workshopRepository.deleteByEndTimeBefore(LocalDateTime.now());
+        contentVersionService.bump(ContentVersionService.WORKSHOPS);
         System.out.println("Deleted expired workshops at: " + LocalDateTime.now());
     }
 }
@@ -0,0 +1,102 @@
+package com.yoga.attendance.benchmark;
+
+import com.yoga.attendance.service.EmailTemplateService;
+import jakarta.mail.internet.MimeMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Per-mail cost of the password reset OTP against the previous EmailService, which concatenated the HTML
+// on every call and wrapped it in a multipart message (the concat* methods reproduce it). Nothing is sent.
+// Add "-prof gc" to the args for allocation per mail.
+// mvn -Pbenchmark test-compile exec:exec -Djmh.args="EmailTemplateBenchmark"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmailTemplateBenchmark {
+
+    private static final String OTP = "482913";
+
+    private EmailTemplateService templateService;
+    private JavaMailSenderImpl mailSender;
+
+    @Setup
+    public void setUp() throws Exception {
+        templateService = new EmailTemplateService();
+        mailSender = new JavaMailSenderImpl();
+    }
+
+    @Benchmark
+    public String concatTemplate() {
+        return concatResetOtpTemplate(OTP);
+    }
+
+    @Benchmark
+    public String compiledTemplate() {
+        return templateService.render("password-reset-otp", Locale.ENGLISH, Map.of("otp", OTP)).getHtml();
+    }
+
+    @Benchmark
+    public MimeMessage concatMessage() throws Exception {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setFrom("noreply@example.com");
+        helper.setTo("student1@example.com");
+        helper.setSubject("Sittha Viruthi Yoga - Reset Password OTP");
+        helper.setText(concatResetOtpTemplate(OTP), true);
+        return message;
+    }
+
+    // Matches EmailOutboxWorker.toMessage: a single-part message from the rendered subject and body
+    @Benchmark
+    public MimeMessage compiledMessage() throws Exception {
+        EmailTemplateService.RenderedEmail email =
+                templateService.render("password-reset-otp", Locale.ENGLISH, Map.of("otp", OTP));
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, false, "UTF-8");
+        helper.setFrom("noreply@example.com");
+        helper.setTo("student1@example.com");
+        helper.setSubject(email.getSubject());
+        helper.setText(email.getHtml(), true);
+        return message;
+    }
+
+    private String concatResetOtpTemplate(String otp) {
+        return "<!DOCTYPE html>" +
+                "<html>" +
+                "<head><style>" +
+                ".otp-box { background-color: #00A8A8; padding: 20px; border-radius: 8px; font-size: 32px; font-weight: bold; text-align: center; margin: 20px 0; color: #FFF; letter-spacing: 8px; }"
+                +
+                "</style></head>" +
+                "<body style='font-family: Arial, sans-serif; padding: 20px;'>" +
+                "<h2>Reset Your Password</h2>" +
+                "<p>Your OTP to reset your password is:</p>" +
+                "<div class='otp-box'>" + otp + "</div>" +
+                "<p><strong>Steps:</strong></p>" +
+                "<ol>" +
+                "<li>Open the Yoga App</li>" +
+                "<li>Enter this OTP in the verification screen</li>" +
+                "<li>Enter your new password</li>" +
+                "</ol>" +
+                "<p>This OTP will expire in 10 minutes.</p>" +
+                "<p>If you didn't request this, please ignore this email.</p>" +
+                "</body>" +
+                "</html>";
+    }
+}
@@ -0,0 +1,87 @@
+package com.yoga.attendance.benchmark;
+
+import com.yoga.attendance.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+// Tokens/sec for JwtUtil generation and validation against the previous implementation, which derived
+// the HMAC key and built a new parser on every call (the rebuilt* methods reproduce it).
+// mvn -Pbenchmark test-compile exec:exec -Djmh.args="JwtBenchmark"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret-0123456789";
+    private static final long EXPIRATION = 3_600_000L;
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(SECRET, EXPIRATION, 7 * 24 * EXPIRATION);
+        token = jwtUtil.generateToken("student1", "USER");
+    }
+
+    @Benchmark
+    public String rebuiltKeyGenerate() {
+        return Jwts.builder()
+                .setSubject("student1")
+                .claim("role", "USER")
+                .claim("type", "access")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION))
+                .signWith(rebuiltKey(), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    @Benchmark
+    public String cachedKeyGenerate() {
+        return jwtUtil.generateToken("student1", "USER");
+    }
+
+    // The filter used to parse each token twice (extractUsername, then validateToken), each with a new parser
+    @Benchmark
+    public String rebuiltParserValidate() {
+        String username = rebuiltParse(token).getSubject();
+        rebuiltParse(token);
+        return username;
+    }
+
+    @Benchmark
+    public String sharedParserValidate() {
+        return jwtUtil.readToken(token).getUsername();
+    }
+
+    private Key rebuiltKey() {
+        return Keys.hmacShaKeyFor(SECRET.getBytes());
+    }
+
+    private Claims rebuiltParse(String jwt) {
+        return Jwts.parserBuilder()
+                .setSigningKey(rebuiltKey())
+                .build()
+                .parseClaimsJws(jwt)
+                .getBody();
+    }
+}
@@ -0,0 +1,201 @@
+package com.yoga.attendance.scheduler;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.yoga.attendance.entity.EmailOutbox;
+import com.yoga.attendance.repository.EmailOutboxRepository;
+import com.yoga.attendance.service.EmailService;
+import com.yoga.attendance.service.EmailTemplateService;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.ServerSocket;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+// Outbox delivery end to end against a GreenMail SMTP server: EmailService queues a rendered template,
+// EmailOutboxWorker claims and sends it. The repository is an in-memory stand-in for email_outbox.
+class EmailOutboxWorkerTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private final Map<Long, EmailOutbox> rows = new ConcurrentHashMap<>();
+    private EmailOutboxRepository outboxRepository;
+    private ThreadPoolTaskExecutor mailExecutor;
+    private EmailService emailService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        outboxRepository = inMemoryOutbox();
+        mailExecutor = new ThreadPoolTaskExecutor();
+        mailExecutor.setCorePoolSize(2);
+        mailExecutor.setMaxPoolSize(2);
+        mailExecutor.setQueueCapacity(10);
+        mailExecutor.initialize();
+
+        emailService = new EmailService();
+        ReflectionTestUtils.setField(emailService, "outboxRepository", outboxRepository);
+        ReflectionTestUtils.setField(emailService, "templateService", new EmailTemplateService());
+    }
+
+    @AfterEach
+    void tearDown() {
+        mailExecutor.shutdown();
+    }
+
+    @Test
+    void deliversQueuedOtpMailOverSmtp() throws Exception {
+        assertThat(emailService.sendVerificationOtp("student@example.com", "482913")).isTrue();
+        assertThat(onlyRow().getStatus()).isEqualTo("PENDING");
+
+        worker(greenMail.getSmtp().getPort()).deliverDue();
+
+        assertThat(greenMail.waitForIncomingEmail(5000, 1)).isTrue();
+        MimeMessage received = greenMail.getReceivedMessages()[0];
+        assertThat(received.getAllRecipients()[0].toString()).isEqualTo("student@example.com");
+        assertThat(received.getFrom()[0].toString()).isEqualTo("noreply@example.com");
+        assertThat(GreenMailUtil.getBody(received)).contains("482913");
+        awaitStatus(onlyRow(), "SENT");
+        assertThat(onlyRow().getAttempts()).isEqualTo(1);
+        assertThat(onlyRow().getSentAt()).isNotNull();
+    }
+
+    @Test
+    void deliversEveryClaimedRowOfABatch() throws Exception {
+        for (int i = 0; i < 6; i++) {
+            emailService.sendPasswordResetOtp("user" + i + "@example.com", "10000" + i);
+        }
+
+        worker(greenMail.getSmtp().getPort()).deliverDue();
+
+        assertThat(greenMail.waitForIncomingEmail(5000, 6)).isTrue();
+        for (EmailOutbox row : rows.values()) {
+            awaitStatus(row, "SENT");
+        }
+        assertThat(greenMail.getReceivedMessages()).extracting(message -> message.getAllRecipients()[0].toString())
+                .containsExactlyInAnyOrder("user0@example.com", "user1@example.com", "user2@example.com",
+                        "user3@example.com", "user4@example.com", "user5@example.com");
+    }
+
+    @Test
+    void requeuesWithBackoffWhenSmtpIsUnreachable() throws Exception {
+        emailService.sendVerificationOtp("student@example.com", "482913");
+
+        worker(unusedPort()).deliverDue();
+
+        EmailOutbox row = onlyRow();
+        awaitStatus(row, "PENDING", 1);
+        assertThat(row.getLastError()).isNotBlank();
+        // First retry 30 s out
+        assertThat(row.getNextAttemptAt()).isAfter(LocalDateTime.now().plusSeconds(20));
+        assertThat(greenMail.getReceivedMessages()).isEmpty();
+    }
+
+    @Test
+    void marksRowFailedAfterTheLastAttempt() throws Exception {
+        emailService.sendVerificationOtp("student@example.com", "482913");
+        onlyRow().setAttempts(4);
+
+        worker(unusedPort()).deliverDue();
+
+        awaitStatus(onlyRow(), "FAILED", 5);
+    }
+
+    @Test
+    void housekeepingPurgesSentAndFailedRows() {
+        worker(greenMail.getSmtp().getPort()).housekeeping();
+
+        verify(outboxRepository).deleteFinishedBefore(any());
+    }
+
+    private EmailOutboxWorker worker(int smtpPort) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtpPort);
+        mailSender.getJavaMailProperties().put("mail.smtp.connectiontimeout", "2000");
+        return new EmailOutboxWorker(outboxRepository, mailSender, mailExecutor, "noreply@example.com");
+    }
+
+    private EmailOutbox onlyRow() {
+        assertThat(rows).hasSize(1);
+        return rows.values().iterator().next();
+    }
+
+    private void awaitStatus(EmailOutbox row, String status) throws InterruptedException {
+        awaitStatus(row, status, null);
+    }
+
+    // Rows are updated on the mail worker thread; the final save carries the new status
+    private void awaitStatus(EmailOutbox row, String status, Integer attempts) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!(status.equals(row.getStatus()) && (attempts == null || attempts.equals(row.getAttempts())))
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(row.getStatus()).isEqualTo(status);
+        if (attempts != null) {
+            assertThat(row.getAttempts()).isEqualTo(attempts);
+        }
+    }
+
+    private static int unusedPort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    // Just enough of EmailOutboxRepository for queueing, claiming and sending
+    @SuppressWarnings("unchecked")
+    private EmailOutboxRepository inMemoryOutbox() {
+        EmailOutboxRepository repository = mock(EmailOutboxRepository.class);
+        AtomicLong ids = new AtomicLong();
+        when(repository.save(any(EmailOutbox.class))).thenAnswer(invocation -> {
+            EmailOutbox row = invocation.getArgument(0);
+            if (row.getId() == null) {
+                row.setId(ids.incrementAndGet());
+            }
+            rows.put(row.getId(), row);
+            return row;
+        });
+        when(repository.saveAll(any())).thenAnswer(invocation -> {
+            ((Iterable<EmailOutbox>) invocation.getArgument(0)).forEach(repository::save);
+            return invocation.getArgument(0);
+        });
+        when(repository.findDueIds(any(), any())).thenAnswer(invocation -> {
+            LocalDateTime now = invocation.getArgument(0);
+            return rows.values().stream()
+                    .filter(row -> "PENDING".equals(row.getStatus()) && !row.getNextAttemptAt().isAfter(now))
+                    .map(EmailOutbox::getId)
+                    .sorted()
+                    .toList();
+        });
+        when(repository.claim(any(), any())).thenAnswer(invocation -> {
+            EmailOutbox row = rows.get((Long) invocation.getArgument(0));
+            if (row == null || !"PENDING".equals(row.getStatus())) {
+                return 0;
+            }
+            row.setStatus("SENDING");
+            row.setClaimedAt(invocation.getArgument(1));
+            return 1;
+        });
+        when(repository.findAllById(any())).thenAnswer(invocation -> ((Collection<Long>) invocation.getArgument(0))
+                .stream().map(rows::get).toList());
+        return repository;
+    }
+}
@@ -0,0 +1,175 @@
+package com.yoga.attendance.service;
+
+import com.yoga.attendance.entity.DeviceToken;
+import com.yoga.attendance.repository.DeviceTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+// FCMService batching, retry/backoff and pruning against a scripted in-memory PushTransport
+class FCMServiceTest {
+
+    private DeviceTokenRepository deviceTokenRepository;
+    private FakePushTransport transport;
+    private FCMService fcmService;
+
+    @BeforeEach
+    void setUp() {
+        deviceTokenRepository = mock(DeviceTokenRepository.class);
+        when(deviceTokenRepository.deleteByTokenIn(anyCollection()))
+                .thenAnswer(invocation -> ((Collection<?>) invocation.getArgument(0)).size());
+        transport = new FakePushTransport();
+        // Run batches on the calling thread so each test observes every send before asserting
+        fcmService = new FCMService(deviceTokenRepository, transport, Runnable::run);
+        ReflectionTestUtils.setField(fcmService, "fcmEnabled", true);
+    }
+
+    @Test
+    void splitsTokensIntoMulticastBatchesOfAtMost500() {
+        givenTokens(tokens("t", 1203));
+
+        fcmService.sendToAllUsers("Title", "Body", "general").join();
+
+        assertThat(transport.calls).extracting(List::size).containsExactly(500, 500, 203);
+        assertThat(transport.calls.stream().flatMap(List::stream).distinct().count()).isEqualTo(1203);
+        verify(deviceTokenRepository, never()).deleteByTokenIn(any());
+    }
+
+    @Test
+    void sendsEachDistinctTokenOnce() {
+        givenTokens(List.of("a", "b", "a", "c", "b"));
+
+        fcmService.sendToAllUsers("Title", "Body", "general").join();
+
+        assertThat(transport.calls).containsExactly(List.of("a", "b", "c"));
+    }
+
+    @Test
+    void resendsOnlyTransientFailuresWithExponentialBackoff() {
+        givenTokens(List.of("ok", "flaky", "down"));
+        transport.script("flaky", PushTransport.Outcome.RETRY, PushTransport.Outcome.DELIVERED);
+        transport.script("down", PushTransport.Outcome.RETRY, PushTransport.Outcome.RETRY, PushTransport.Outcome.DELIVERED);
+
+        fcmService.sendToAllUsers("Title", "Body", "general").join();
+
+        assertThat(transport.calls).containsExactly(
+                List.of("ok", "flaky", "down"),
+                List.of("flaky", "down"),
+                List.of("down"));
+        // 500 ms before the first resend, doubled before the next
+        assertThat(transport.gapMillis(1)).isGreaterThanOrEqualTo(500);
+        assertThat(transport.gapMillis(2)).isGreaterThanOrEqualTo(1000);
+    }
+
+    @Test
+    void givesUpOnTransientFailuresAfterFourAttempts() {
+        givenTokens(List.of("down"));
+        transport.script("down", PushTransport.Outcome.RETRY, PushTransport.Outcome.RETRY,
+                PushTransport.Outcome.RETRY, PushTransport.Outcome.RETRY, PushTransport.Outcome.DELIVERED);
+
+        fcmService.sendToAllUsers("Title", "Body", "general").join();
+
+        assertThat(transport.calls).hasSize(4);
+        verify(deviceTokenRepository, never()).deleteByTokenIn(any());
+    }
+
+    @Test
+    void prunesUnregisteredTokensWithoutRetryingThem() {
+        givenTokens(List.of("ok", "gone", "broken"));
+        transport.script("gone", PushTransport.Outcome.UNREGISTERED);
+        transport.script("broken", PushTransport.Outcome.FAILED);
+
+        fcmService.sendToAllUsers("Title", "Body", "general").join();
+
+        assertThat(transport.calls).containsExactly(List.of("ok", "gone", "broken"));
+        verify(deviceTokenRepository).deleteByTokenIn(List.of("gone"));
+    }
+
+    @Test
+    void dropsTheBatchWhenTheTransportThrows() {
+        givenTokens(List.of("a", "b"));
+        transport.failWith(new IllegalStateException("provider down"));
+
+        fcmService.sendToAllUsers("Title", "Body", "general").join();
+
+        assertThat(transport.calls).hasSize(1);
+        verify(deviceTokenRepository, never()).deleteByTokenIn(any());
+    }
+
+    @Test
+    void sendsNothingWhenDisabled() {
+        ReflectionTestUtils.setField(fcmService, "fcmEnabled", false);
+        givenTokens(List.of("a"));
+
+        fcmService.sendToAllUsers("Title", "Body", "general").join();
+
+        assertThat(transport.calls).isEmpty();
+        verifyNoInteractions(deviceTokenRepository);
+    }
+
+    private void givenTokens(List<String> tokens) {
+        List<DeviceToken> deviceTokens = tokens.stream().map(token -> {
+            DeviceToken deviceToken = new DeviceToken();
+            deviceToken.setUsername("user-" + token);
+            deviceToken.setToken(token);
+            return deviceToken;
+        }).collect(Collectors.toList());
+        when(deviceTokenRepository.findAll()).thenReturn(deviceTokens);
+    }
+
+    private static List<String> tokens(String prefix, int count) {
+        return IntStream.range(0, count).mapToObj(i -> prefix + i).collect(Collectors.toList());
+    }
+
+    // Answers each token from its script, one outcome per attempt (the last one repeats); unscripted tokens
+    // are delivered. Records every batch and when it was sent.
+    private static class FakePushTransport implements PushTransport {
+
+        private final List<List<String>> calls = new ArrayList<>();
+        private final List<Long> sentAt = new ArrayList<>();
+        private final Map<String, List<Outcome>> scripts = new HashMap<>();
+        private final Map<String, Integer> attempts = new HashMap<>();
+        private RuntimeException failure;
+
+        void script(String token, Outcome... outcomes) {
+            scripts.put(token, List.of(outcomes));
+        }
+
+        void failWith(RuntimeException failure) {
+            this.failure = failure;
+        }
+
+        long gapMillis(int call) {
+            return sentAt.get(call) - sentAt.get(call - 1);
+        }
+
+        @Override
+        public List<Outcome> send(List<String> tokens, String title, String body, String type) {
+            calls.add(List.copyOf(tokens));
+            sentAt.add(System.currentTimeMillis());
+            if (failure != null) {
+                throw failure;
+            }
+            List<Outcome> outcomes = new ArrayList<>(tokens.size());
+            for (String token : tokens) {
+                List<Outcome> script = scripts.getOrDefault(token, List.of(Outcome.DELIVERED));
+                int attempt = attempts.merge(token, 1, Integer::sum) - 1;
+                outcomes.add(script.get(Math.min(attempt, script.size() - 1)));
+            }
+            return outcomes;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+-- Per-user, per-level attended-day counters used by the level-up check (AttendanceCounter).
+-- Needed where ddl-auto=validate. Rows are seeded from the attendance table on a user's first check-in
+-- at a level, so the table can start empty. Ids switch to a pooled sequence in add_id_sequence_tables.sql.
+
+CREATE TABLE IF NOT EXISTS attendance_counters (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(255) NOT NULL,
+    level INT NOT NULL,
+    attended_days BIGINT NOT NULL DEFAULT 0,
+    updated_at DATETIME(6) NOT NULL,
+    UNIQUE KEY uk_counter_username_level (username, level)
+);
@@ -0,0 +1,26 @@
+-- Precomputed attendance analytics (AttendanceDailyRollup, AttendanceStreak). Needed where ddl-auto=validate.
+-- Both tables can start empty: the rollup scheduler fills in every day that has attendance on its first run,
+-- and streaks are rebuilt per user as attendance is marked or edited.
+-- Ids switch to pooled sequences in add_id_sequence_tables.sql.
+
+CREATE TABLE IF NOT EXISTS attendance_daily_rollups (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    rollup_date DATE NOT NULL,
+    level INT NOT NULL,
+    present_count BIGINT NOT NULL DEFAULT 0,
+    absent_count BIGINT NOT NULL DEFAULT 0,
+    stale BOOLEAN NOT NULL DEFAULT FALSE,
+    computed_at DATETIME(6) NOT NULL,
+    UNIQUE KEY uk_rollup_date_level (rollup_date, level),
+    INDEX idx_rollup_stale (stale)
+);
+
+CREATE TABLE IF NOT EXISTS attendance_streaks (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(255) NOT NULL UNIQUE,
+    current_streak INT NOT NULL DEFAULT 0,
+    longest_streak INT NOT NULL DEFAULT 0,
+    last_present_date DATE,
+    INDEX idx_streak_last_present (last_present_date),
+    INDEX idx_streak_current (current_streak)
+);
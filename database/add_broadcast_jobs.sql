@@ -0,0 +1,22 @@
+-- Queued broadcast fan-out (BroadcastJob), including the owner/lease columns an instance sets when it claims
+-- a job. Needed where ddl-auto=validate. Also indexes device tokens by user for the per-chunk push lookup.
+
+CREATE TABLE IF NOT EXISTS broadcast_jobs (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    title VARCHAR(255) NOT NULL,
+    message TEXT,
+    type VARCHAR(255),
+    status VARCHAR(255) NOT NULL DEFAULT 'QUEUED',
+    total_recipients BIGINT NOT NULL DEFAULT 0,
+    processed_recipients BIGINT NOT NULL DEFAULT 0,
+    last_recipient_id BIGINT NOT NULL DEFAULT 0,
+    owner VARCHAR(100),
+    lease_until DATETIME(6),
+    error VARCHAR(1000),
+    created_at DATETIME(6) NOT NULL,
+    started_at DATETIME(6),
+    finished_at DATETIME(6),
+    INDEX idx_broadcast_status (status)
+);
+
+CREATE INDEX idx_device_token_username ON device_tokens (username);
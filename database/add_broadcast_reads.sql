@@ -0,0 +1,19 @@
+-- Broadcasts are stored once and merged into inboxes at read time (BroadcastRead, NotificationReadCursor).
+-- Needed where ddl-auto=validate; run after add_broadcast_jobs.sql.
+
+CREATE TABLE IF NOT EXISTS broadcast_reads (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(255) NOT NULL,
+    broadcast_id BIGINT NOT NULL,
+    read_at DATETIME(6) NOT NULL,
+    UNIQUE KEY uk_broadcast_read (username, broadcast_id)
+);
+
+CREATE TABLE IF NOT EXISTS notification_read_cursors (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(255) NOT NULL UNIQUE,
+    broadcast_read_up_to BIGINT NOT NULL DEFAULT 0
+);
+
+-- Inbox merge reads broadcasts newest first
+CREATE INDEX idx_broadcast_created_at ON broadcast_jobs (created_at);
@@ -0,0 +1,17 @@
+-- Persistent outbox for OTP and notification emails (EmailOutbox), drained by EmailOutboxWorker.
+-- Needed where ddl-auto=validate. Ids switch to a pooled sequence in add_id_sequence_tables.sql.
+
+CREATE TABLE IF NOT EXISTS email_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    recipient VARCHAR(255) NOT NULL,
+    subject VARCHAR(255) NOT NULL,
+    html_body MEDIUMTEXT NOT NULL,
+    status VARCHAR(255) NOT NULL DEFAULT 'PENDING',
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at DATETIME(6) NOT NULL,
+    claimed_at DATETIME(6),
+    last_error VARCHAR(1000),
+    created_at DATETIME(6) NOT NULL,
+    sent_at DATETIME(6),
+    INDEX idx_email_outbox_due (status, next_attempt_at)
+);
@@ -0,0 +1,7 @@
+-- Chunked purge of expired healing uploads. The index serves the oldest-expired-first select; release_pending
+-- marks deactivated rows whose blobs still have to be released, so a failed release is retried.
+-- release_pending is needed where ddl-auto=validate; rows purged before it existed stay NULL and are skipped.
+
+CREATE INDEX idx_healing_active_expiry ON healing_uploads (is_active, expiry_date, upload_timestamp);
+
+ALTER TABLE healing_uploads ADD COLUMN release_pending BOOLEAN;
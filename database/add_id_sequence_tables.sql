@@ -0,0 +1,77 @@
+-- Sequence tables for the entities that moved from AUTO_INCREMENT to pooled sequence ids (batched inserts).
+-- Needed where ddl-auto=validate. Each sequence starts past the higher of the table's max id and its
+-- AUTO_INCREMENT counter, plus one allocation block (50); IdSequenceSeeder re-checks the same floor on startup.
+--
+-- Requires the tables it migrates: run add_attendance_counters.sql, add_attendance_rollups_and_streaks.sql and
+-- add_email_outbox.sql first (notifications, attendance and user_progress come from database-setup.sql).
+--
+-- Not a rolling change: stop every instance running the AUTO_INCREMENT build before running this script, and
+-- start the new build only after it. An old instance inserting through AUTO_INCREMENT next to a new one would
+-- take ids the sequence has already handed out. AUTO_INCREMENT is dropped below, so a stray old instance fails
+-- its inserts loudly instead of colliding.
+
+-- MySQL 8 serves information_schema.TABLES.AUTO_INCREMENT from cached statistics unless told otherwise
+SET SESSION information_schema_stats_expiry = 0;
+
+CREATE TABLE IF NOT EXISTS notifications_seq (next_val BIGINT) ENGINE=InnoDB;
+INSERT INTO notifications_seq (next_val)
+SELECT seed.next_val FROM (
+    SELECT GREATEST(COALESCE(MAX(e.id), 0), COALESCE((SELECT t.AUTO_INCREMENT - 1 FROM information_schema.TABLES t
+        WHERE t.TABLE_SCHEMA = DATABASE() AND t.TABLE_NAME = 'notifications'), 0)) + 51 AS next_val
+    FROM notifications e) seed
+WHERE NOT EXISTS (SELECT 1 FROM notifications_seq);
+ALTER TABLE notifications MODIFY id BIGINT NOT NULL;
+
+CREATE TABLE IF NOT EXISTS attendance_seq (next_val BIGINT) ENGINE=InnoDB;
+INSERT INTO attendance_seq (next_val)
+SELECT seed.next_val FROM (
+    SELECT GREATEST(COALESCE(MAX(e.id), 0), COALESCE((SELECT t.AUTO_INCREMENT - 1 FROM information_schema.TABLES t
+        WHERE t.TABLE_SCHEMA = DATABASE() AND t.TABLE_NAME = 'attendance'), 0)) + 51 AS next_val
+    FROM attendance e) seed
+WHERE NOT EXISTS (SELECT 1 FROM attendance_seq);
+ALTER TABLE attendance MODIFY id BIGINT NOT NULL;
+
+CREATE TABLE IF NOT EXISTS user_progress_seq (next_val BIGINT) ENGINE=InnoDB;
+INSERT INTO user_progress_seq (next_val)
+SELECT seed.next_val FROM (
+    SELECT GREATEST(COALESCE(MAX(e.id), 0), COALESCE((SELECT t.AUTO_INCREMENT - 1 FROM information_schema.TABLES t
+        WHERE t.TABLE_SCHEMA = DATABASE() AND t.TABLE_NAME = 'user_progress'), 0)) + 51 AS next_val
+    FROM user_progress e) seed
+WHERE NOT EXISTS (SELECT 1 FROM user_progress_seq);
+ALTER TABLE user_progress MODIFY id BIGINT NOT NULL;
+
+CREATE TABLE IF NOT EXISTS attendance_counters_seq (next_val BIGINT) ENGINE=InnoDB;
+INSERT INTO attendance_counters_seq (next_val)
+SELECT seed.next_val FROM (
+    SELECT GREATEST(COALESCE(MAX(e.id), 0), COALESCE((SELECT t.AUTO_INCREMENT - 1 FROM information_schema.TABLES t
+        WHERE t.TABLE_SCHEMA = DATABASE() AND t.TABLE_NAME = 'attendance_counters'), 0)) + 51 AS next_val
+    FROM attendance_counters e) seed
+WHERE NOT EXISTS (SELECT 1 FROM attendance_counters_seq);
+ALTER TABLE attendance_counters MODIFY id BIGINT NOT NULL;
+
+CREATE TABLE IF NOT EXISTS attendance_daily_rollups_seq (next_val BIGINT) ENGINE=InnoDB;
+INSERT INTO attendance_daily_rollups_seq (next_val)
+SELECT seed.next_val FROM (
+    SELECT GREATEST(COALESCE(MAX(e.id), 0), COALESCE((SELECT t.AUTO_INCREMENT - 1 FROM information_schema.TABLES t
+        WHERE t.TABLE_SCHEMA = DATABASE() AND t.TABLE_NAME = 'attendance_daily_rollups'), 0)) + 51 AS next_val
+    FROM attendance_daily_rollups e) seed
+WHERE NOT EXISTS (SELECT 1 FROM attendance_daily_rollups_seq);
+ALTER TABLE attendance_daily_rollups MODIFY id BIGINT NOT NULL;
+
+CREATE TABLE IF NOT EXISTS attendance_streaks_seq (next_val BIGINT) ENGINE=InnoDB;
+INSERT INTO attendance_streaks_seq (next_val)
+SELECT seed.next_val FROM (
+    SELECT GREATEST(COALESCE(MAX(e.id), 0), COALESCE((SELECT t.AUTO_INCREMENT - 1 FROM information_schema.TABLES t
+        WHERE t.TABLE_SCHEMA = DATABASE() AND t.TABLE_NAME = 'attendance_streaks'), 0)) + 51 AS next_val
+    FROM attendance_streaks e) seed
+WHERE NOT EXISTS (SELECT 1 FROM attendance_streaks_seq);
+ALTER TABLE attendance_streaks MODIFY id BIGINT NOT NULL;
+
+CREATE TABLE IF NOT EXISTS email_outbox_seq (next_val BIGINT) ENGINE=InnoDB;
+INSERT INTO email_outbox_seq (next_val)
+SELECT seed.next_val FROM (
+    SELECT GREATEST(COALESCE(MAX(e.id), 0), COALESCE((SELECT t.AUTO_INCREMENT - 1 FROM information_schema.TABLES t
+        WHERE t.TABLE_SCHEMA = DATABASE() AND t.TABLE_NAME = 'email_outbox'), 0)) + 51 AS next_val
+    FROM email_outbox e) seed
+WHERE NOT EXISTS (SELECT 1 FROM email_outbox_seq);
+ALTER TABLE email_outbox MODIFY id BIGINT NOT NULL;
@@ -0,0 +1,4 @@
+-- Day the app-open attendance reminder was last sent, claimed with one conditional UPDATE per user and day.
+-- Needed where ddl-auto=validate.
+
+ALTER TABLE users ADD COLUMN last_reminder_date DATE;
@@ -0,0 +1,5 @@
+-- Keyset inbox pages (username, created_at, id) and unread counts (username, is_read) on notifications.
+-- Indexes are not checked by ddl-auto=validate, but without them both queries scan the table.
+
+CREATE INDEX idx_notification_user_created ON notifications (username, created_at, id);
+CREATE INDEX idx_notification_user_read ON notifications (username, is_read);
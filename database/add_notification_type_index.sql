@@ -0,0 +1,4 @@
+-- Set-based cleanup of old attendance reminders deletes by (type, created_at).
+-- Not checked by ddl-auto=validate, but without it every cleanup chunk scans notifications.
+
+CREATE INDEX idx_notification_type_created ON notifications (type, created_at);
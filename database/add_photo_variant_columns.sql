@@ -0,0 +1,10 @@
+-- Resized renditions of uploaded photos, filled in asynchronously after upload. Needed where ddl-auto=validate.
+-- Existing rows keep NULL and are served their original photo.
+
+ALTER TABLE healing_uploads
+    ADD COLUMN thumbnail_url VARCHAR(255),
+    ADD COLUMN medium_url VARCHAR(255);
+
+ALTER TABLE users
+    ADD COLUMN profile_picture_thumbnail_url VARCHAR(255),
+    ADD COLUMN profile_picture_medium_url VARCHAR(255);
@@ -0,0 +1,12 @@
+-- Reference counts for the content-addressed upload store (UploadBlob). Needed where ddl-auto=validate.
+-- Files uploaded before the store keep their flat uploads/<name> URLs and have no row here.
+
+CREATE TABLE IF NOT EXISTS upload_blobs (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    hash VARCHAR(64) NOT NULL,
+    extension VARCHAR(10) NOT NULL,
+    size_bytes BIGINT NOT NULL,
+    ref_count INT NOT NULL DEFAULT 1,
+    created_at DATETIME(6) NOT NULL,
+    UNIQUE KEY idx_upload_blob_hash (hash)
+);
@@ -0,0 +1,90 @@
+// Home screen cold-start latency: the app's seven launch calls against the single GET /me/today
+// Start the backend with RATE_LIMIT_DEFAULT raised (e.g. 100000), then:
+//   LOAD_USERNAME=student1 LOAD_PASSWORD=... RTT_MS=150 node dev-helpers/load-test-cold-start.js
+// RTT_MS adds a client-side delay per request to stand in for a mobile round-trip (0 measures the server alone).
+// Each iteration times three ways to load the screen, one after the other:
+//   sequential - content first (workshops need its level), then the other six one by one
+//   parallel   - content first, then the other six at once: the best the old calls allow
+//   today      - GET /me/today
+// Optional: ITERATIONS (50)
+const { API_URL, login, percentile } = require('./load-test-common');
+
+const USERNAME = process.env.LOAD_USERNAME || 'student1';
+const PASSWORD = process.env.LOAD_PASSWORD || 'Test123';
+const RTT_MS = parseInt(process.env.RTT_MS || '0', 10);
+const ITERATIONS = parseInt(process.env.ITERATIONS || '50', 10);
+
+const sleep = ms => new Promise(resolve => setTimeout(resolve, ms));
+
+async function main() {
+  const token = await login(USERNAME, PASSWORD);
+  const headers = { Authorization: `Bearer ${token}` };
+
+  // One call; fails the screen load on anything but 2xx, like the app does
+  async function call(path, method = 'GET') {
+    if (RTT_MS > 0) {
+      await sleep(RTT_MS);
+    }
+    const response = await fetch(`${API_URL}${path}`, { method, headers });
+    const body = await response.json();
+    if (!response.ok) {
+      throw new Error(`${method} ${path} returned ${response.status}`);
+    }
+    return body;
+  }
+
+  const rest = level => [
+    () => call(`/content/progress/${USERNAME}`),
+    () => call('/content/routines'),
+    () => call('/content/habits'),
+    () => call(`/content/workshops/${level}`),
+    () => call('/notifications/unread-count'),
+    () => call('/app/open', 'POST')
+  ];
+
+  const strategies = {
+    sequential: async () => {
+      const content = await call(`/content/user/${USERNAME}`);
+      for (const next of rest(content.level)) {
+        await next();
+      }
+    },
+    parallel: async () => {
+      const content = await call(`/content/user/${USERNAME}`);
+      await Promise.all(rest(content.level).map(next => next()));
+    },
+    today: () => call('/me/today')
+  };
+
+  const results = {};
+  for (const name of Object.keys(strategies)) {
+    results[name] = { errors: 0, latencies: [] };
+    // One untimed pass so every strategy starts with warm connections and JIT
+    await strategies[name]();
+  }
+
+  for (let i = 0; i < ITERATIONS; i++) {
+    for (const [name, load] of Object.entries(strategies)) {
+      const result = results[name];
+      const started = performance.now();
+      try {
+        await load();
+      } catch (error) {
+        result.errors++;
+      }
+      result.latencies.push(performance.now() - started);
+    }
+  }
+
+  console.log(`${ITERATIONS} home screen loads per strategy, RTT_MS ${RTT_MS}\n`);
+  for (const [name, result] of Object.entries(results)) {
+    const l = result.latencies.sort((a, b) => a - b);
+    console.log(`${name}: p50 ${percentile(l, 50).toFixed(1)} ms, p99 ${percentile(l, 99).toFixed(1)} ms, ` +
+      `max ${l[l.length - 1].toFixed(1)} ms, failed loads ${result.errors}`);
+  }
+}
+
+main().catch(error => {
+  console.error('Load test failed:', error.message);
+  process.exit(1);
+});
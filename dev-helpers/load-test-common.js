@@ -0,0 +1,81 @@
+// Shared helpers for the load-test-*.js scripts: closed-loop load with fetch, latency percentiles, server CPU
+// Node 18+ (global fetch), no dependencies. API_URL defaults to a local backend.
+const fs = require('fs');
+
+const API_URL = process.env.API_URL || 'http://localhost:8080/api/v1';
+const SERVER_URL = process.env.SERVER_URL || API_URL.replace(/\/api\/v1$/, '');
+// Kernel clock ticks per second for /proc/<pid>/stat; 100 on practically every Linux build
+const CLK_TCK = parseInt(process.env.CLK_TCK || '100', 10);
+
+async function login(username, password) {
+  const response = await fetch(`${API_URL}/auth/login`, {
+    method: 'POST',
+    headers: { 'Content-Type': 'application/json' },
+    body: JSON.stringify({ username, password })
+  });
+  const data = await response.json();
+  if (!response.ok || !data.accessToken) {
+    throw new Error(`Login failed for ${username}: ${response.status} ${JSON.stringify(data)}`);
+  }
+  return data.accessToken;
+}
+
+// Runs `concurrency` workers that each call request() back to back until durationMs has passed.
+// request() resolves to a fetch Response; its body is drained, unless request() already read it, so the
+// connection is reused.
+async function runLoad({ durationMs, concurrency, request }) {
+  const result = { count: 0, errors: 0, statuses: {}, latencies: [], elapsedMs: 0 };
+  const started = performance.now();
+  const deadline = started + durationMs;
+
+  async function worker() {
+    while (performance.now() < deadline) {
+      const sent = performance.now();
+      try {
+        const response = await request();
+        if (!response.bodyUsed) {
+          await response.arrayBuffer();
+        }
+        result.statuses[response.status] = (result.statuses[response.status] || 0) + 1;
+      } catch (error) {
+        result.errors++;
+      }
+      result.latencies.push(performance.now() - sent);
+      result.count++;
+    }
+  }
+
+  await Promise.all(Array.from({ length: concurrency }, worker));
+  result.elapsedMs = performance.now() - started;
+  result.latencies.sort((a, b) => a - b);
+  return result;
+}
+
+function percentile(sorted, p) {
+  if (sorted.length === 0) {
+    return 0;
+  }
+  return sorted[Math.min(sorted.length - 1, Math.ceil((p / 100) * sorted.length) - 1)];
+}
+
+// User + system CPU seconds used so far by a local process (Linux only), or null without a pid
+function cpuSeconds(pid) {
+  if (!pid) {
+    return null;
+  }
+  // The command name may contain spaces, so split after its closing parenthesis; utime and stime follow
+  const stat = fs.readFileSync(`/proc/${pid}/stat`, 'utf8');
+  const fields = stat.slice(stat.lastIndexOf(')') + 2).split(' ');
+  return (parseInt(fields[11], 10) + parseInt(fields[12], 10)) / CLK_TCK;
+}
+
+function report(label, result) {
+  const l = result.latencies;
+  console.log(
+    `${label}: ${result.count} requests, ${(result.count / (result.elapsedMs / 1000)).toFixed(1)} req/s, ` +
+    `p50 ${percentile(l, 50).toFixed(1)} ms, p99 ${percentile(l, 99).toFixed(1)} ms, ` +
+    `max ${(l[l.length - 1] || 0).toFixed(1)} ms, statuses ${JSON.stringify(result.statuses)}, errors ${result.errors}`
+  );
+}
+
+module.exports = { API_URL, SERVER_URL, login, runLoad, percentile, cpuSeconds, report };
@@ -0,0 +1,40 @@
+// Tail latency of an ordinary endpoint during a login storm (BCrypt on the password hashing pool)
+// Start the backend with the rate limits out of the way, e.g. RATE_LIMIT_AUTH=100000 RATE_LIMIT_DEFAULT=100000,
+// then run the same script against the old build (request threads hashing) and the current one:
+//   LOAD_USERNAME=student1 LOAD_PASSWORD=... node dev-helpers/load-test-login-storm.js
+// Optional: STORM_CONCURRENCY (64), PROBE_CONCURRENCY (4), DURATION_MS (20000), PROBE_PATH (/content/routines)
+// Under overload the current build answers logins with a fast 503; those show up in the storm statuses.
+const { API_URL, login, runLoad, report } = require('./load-test-common');
+
+const USERNAME = process.env.LOAD_USERNAME || 'student1';
+const PASSWORD = process.env.LOAD_PASSWORD || 'Test123';
+const STORM_CONCURRENCY = parseInt(process.env.STORM_CONCURRENCY || '64', 10);
+const PROBE_CONCURRENCY = parseInt(process.env.PROBE_CONCURRENCY || '4', 10);
+const DURATION_MS = parseInt(process.env.DURATION_MS || '20000', 10);
+const PROBE_PATH = process.env.PROBE_PATH || '/content/routines';
+
+async function main() {
+  const token = await login(USERNAME, PASSWORD);
+  const probe = () => fetch(`${API_URL}${PROBE_PATH}`, { headers: { Authorization: `Bearer ${token}` } });
+  const storm = () => fetch(`${API_URL}/auth/login`, {
+    method: 'POST',
+    headers: { 'Content-Type': 'application/json' },
+    body: JSON.stringify({ username: USERNAME, password: PASSWORD })
+  });
+
+  console.log(`Probe GET ${PROBE_PATH} x${PROBE_CONCURRENCY}, storm POST /auth/login x${STORM_CONCURRENCY}, ${DURATION_MS} ms each\n`);
+
+  report('Probe, quiet', await runLoad({ durationMs: DURATION_MS, concurrency: PROBE_CONCURRENCY, request: probe }));
+
+  const [probed, stormed] = await Promise.all([
+    runLoad({ durationMs: DURATION_MS, concurrency: PROBE_CONCURRENCY, request: probe }),
+    runLoad({ durationMs: DURATION_MS, concurrency: STORM_CONCURRENCY, request: storm })
+  ]);
+  report('Probe, during storm', probed);
+  report('Login storm', stormed);
+}
+
+main().catch(error => {
+  console.error('Load test failed:', error.message);
+  process.exit(1);
+});
@@ -0,0 +1,56 @@
+// Throughput and server CPU per request for GET /uploads/**, full downloads and If-None-Match revalidation
+// Start the backend with RATE_LIMIT_DEFAULT raised (e.g. 100000) and pass its pid for CPU figures (Linux):
+//   UPLOAD_PATH=/uploads/profile-pictures/<file>.jpg SERVER_PID=<backend java pid> node dev-helpers/load-test-uploads.js
+// Run it against the old build (Spring resource handler) and the current one with the same file; a legacy
+// flat name exists in both, a content-addressed /uploads/ab/cd/<sha256>.jpg name only in the current one.
+// Optional: CONCURRENCY (32), DURATION_MS (20000), ACCEPT_ENCODING (identity; e.g. "br, gzip" for the precompressed sibling)
+const { SERVER_URL, runLoad, cpuSeconds, report } = require('./load-test-common');
+
+const UPLOAD_PATH = process.env.UPLOAD_PATH;
+const SERVER_PID = process.env.SERVER_PID;
+const CONCURRENCY = parseInt(process.env.CONCURRENCY || '32', 10);
+const DURATION_MS = parseInt(process.env.DURATION_MS || '20000', 10);
+// fetch would otherwise offer gzip/br itself
+const ACCEPT_ENCODING = process.env.ACCEPT_ENCODING || 'identity';
+
+async function measure(label, request) {
+  const cpuBefore = cpuSeconds(SERVER_PID);
+  const result = await runLoad({ durationMs: DURATION_MS, concurrency: CONCURRENCY, request });
+  report(label, result);
+  if (cpuBefore !== null) {
+    const cpuMs = (cpuSeconds(SERVER_PID) - cpuBefore) * 1000;
+    console.log(`  server CPU ${cpuMs.toFixed(0)} ms, ${(cpuMs / result.count).toFixed(3)} ms per request`);
+  }
+}
+
+async function main() {
+  if (!UPLOAD_PATH) {
+    throw new Error('Set UPLOAD_PATH to an existing file, e.g. /uploads/profile-pictures/<file>.jpg');
+  }
+  const url = `${SERVER_URL}${UPLOAD_PATH}`;
+  const headers = { 'Accept-Encoding': ACCEPT_ENCODING };
+
+  const first = await fetch(url, { headers });
+  const body = await first.arrayBuffer();
+  if (!first.ok) {
+    throw new Error(`GET ${UPLOAD_PATH} returned ${first.status}`);
+  }
+  const etag = first.headers.get('etag');
+  console.log(`GET ${UPLOAD_PATH}: ${body.byteLength} bytes, Cache-Control ${first.headers.get('cache-control')}, ` +
+    `ETag ${etag}, Content-Encoding ${first.headers.get('content-encoding')}`);
+  console.log(`x${CONCURRENCY}, ${DURATION_MS} ms each\n`);
+
+  await measure('Full GET', () => fetch(url, { headers }));
+
+  // What the app does on every screen that shows the picture once it keeps the ETag
+  if (etag) {
+    await measure('Conditional GET', () => fetch(url, { headers: { ...headers, 'If-None-Match': etag } }));
+  } else {
+    console.log('Conditional GET: skipped, the response has no ETag');
+  }
+}
+
+main().catch(error => {
+  console.error('Load test failed:', error.message);
+  process.exit(1);
+});
@@ -0,0 +1,72 @@
+// Throughput and p99 under a mixed, mostly JDBC-bound student workload, to compare the two thread modes
+// Run the backend twice with RATE_LIMIT_DEFAULT raised (e.g. 100000), once per mode, and load it the same way:
+//   VIRTUAL_THREADS_ENABLED=false ... then: LABEL=platform LOAD_USERNAME=student1 LOAD_PASSWORD=... node dev-helpers/load-test-virtual-threads.js
+//   VIRTUAL_THREADS_ENABLED=true  ... then: LABEL=virtual  LOAD_USERNAME=student1 LOAD_PASSWORD=... node dev-helpers/load-test-virtual-threads.js
+// The default concurrency is above Tomcat's 200 platform threads, where the modes differ; JDBC calls still queue
+// on the Hikari pool in both. Each run reports the whole mix and then every endpoint on its own line.
+// Optional: CONCURRENCY (400), DURATION_MS (30000), SERVER_PID (adds server CPU per request, Linux)
+const { API_URL, login, runLoad, percentile, cpuSeconds, report } = require('./load-test-common');
+
+const USERNAME = process.env.LOAD_USERNAME || 'student1';
+const PASSWORD = process.env.LOAD_PASSWORD || 'Test123';
+const LABEL = process.env.LABEL || 'run';
+const CONCURRENCY = parseInt(process.env.CONCURRENCY || '400', 10);
+const DURATION_MS = parseInt(process.env.DURATION_MS || '30000', 10);
+const SERVER_PID = process.env.SERVER_PID;
+
+// Weighted like a class morning: home screen and attendance reads dominate, cached reads fill the gaps
+const MIX = [
+  { weight: 3, path: '/me/today' },
+  { weight: 3, path: `/attendance/user/${USERNAME}` },
+  { weight: 2, path: `/content/progress/${USERNAME}` },
+  { weight: 2, path: '/notifications/page?size=20' },
+  { weight: 1, path: '/notifications/unread-count' },
+  { weight: 1, path: '/content/routines' }
+];
+const TOTAL_WEIGHT = MIX.reduce((sum, entry) => sum + entry.weight, 0);
+
+function pick() {
+  let roll = Math.random() * TOTAL_WEIGHT;
+  for (const entry of MIX) {
+    roll -= entry.weight;
+    if (roll < 0) {
+      return entry;
+    }
+  }
+  return MIX[MIX.length - 1];
+}
+
+async function main() {
+  const token = await login(USERNAME, PASSWORD);
+  const headers = { Authorization: `Bearer ${token}` };
+  const perPath = new Map(MIX.map(entry => [entry.path, []]));
+
+  async function request() {
+    const entry = pick();
+    const started = performance.now();
+    const response = await fetch(`${API_URL}${entry.path}`, { headers });
+    await response.arrayBuffer();
+    perPath.get(entry.path).push(performance.now() - started);
+    return response;
+  }
+
+  console.log(`${LABEL}: x${CONCURRENCY}, ${DURATION_MS} ms\n`);
+  const cpuBefore = cpuSeconds(SERVER_PID);
+  const result = await runLoad({ durationMs: DURATION_MS, concurrency: CONCURRENCY, request });
+  report(`${LABEL} mix`, result);
+  if (cpuBefore !== null) {
+    const cpuMs = (cpuSeconds(SERVER_PID) - cpuBefore) * 1000;
+    console.log(`  server CPU ${cpuMs.toFixed(0)} ms, ${(cpuMs / result.count).toFixed(3)} ms per request`);
+  }
+
+  for (const [path, latencies] of perPath) {
+    latencies.sort((a, b) => a - b);
+    console.log(`  ${path}: ${latencies.length} requests, p50 ${percentile(latencies, 50).toFixed(1)} ms, ` +
+      `p99 ${percentile(latencies, 99).toFixed(1)} ms`);
+  }
+}
+
+main().catch(error => {
+  console.error('Load test failed:', error.message);
+  process.exit(1);
+});